@@ -0,0 +1,96 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendimiento y latencia de GET /api/auth/users con HTTP/1.1 frente a h2c, con y sin gzip, solo con el JDK
+ * (alternativa a http2-load.sh cuando no hay h2load). El HttpClient del JDK llega a h2c por upgrade
+ * desde HTTP/1.1 en la primera petición de cada conexión, no con prior knowledge.
+ *
+ * <pre>
+ * TOKEN=... java msvc-auth/benchmarks/Http2Load.java
+ * </pre>
+ */
+public class Http2Load {
+    public static void main(String[] args) throws Exception {
+        String url = env("URL", env("BASE_URL", "http://localhost:8081") + "/api/auth/users?size=100&count=none");
+        String token = System.getenv("TOKEN");
+        int requests = Integer.parseInt(env("REQUESTS", "20000"));
+        // Misma concurrencia en los dos protocolos: HTTP/1.1 abre una conexión por petición en vuelo,
+        // h2c reparte las mismas peticiones en vuelo como streams sobre H2_CONNECTIONS conexiones
+        int concurrency = Integer.parseInt(env("CONCURRENCY", "8"));
+        int h2Connections = Integer.parseInt(env("H2_CONNECTIONS", "1"));
+        int clients = concurrency;
+        int streams = concurrency / h2Connections;
+
+        run("calentamiento", url, token, HttpClient.Version.HTTP_1_1, false, 2000, clients, 1, false);
+        run("calentamiento", url, token, HttpClient.Version.HTTP_2, false, 2000, h2Connections, streams, false);
+        run("HTTP/1.1", url, token, HttpClient.Version.HTTP_1_1, false, requests, clients, 1, true);
+        run("HTTP/1.1 + gzip", url, token, HttpClient.Version.HTTP_1_1, true, requests, clients, 1, true);
+        run("h2c", url, token, HttpClient.Version.HTTP_2, false, requests, h2Connections, streams, true);
+        run("h2c + gzip", url, token, HttpClient.Version.HTTP_2, true, requests, h2Connections, streams, true);
+    }
+
+    static void run(String name, String url, String token, HttpClient.Version version, boolean gzip,
+                    int requests, int clients, int inFlight, boolean print) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).header("Authorization", "Bearer " + token);
+        if (gzip) builder.header("Accept-Encoding", "gzip");
+        HttpRequest request = builder.build();
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicLong bodyBytes = new AtomicLong(), latencyNanos = new AtomicLong(), errors = new AtomicLong();
+        AtomicLong maxNanos = new AtomicLong();
+        List<String> versions = new ArrayList<>();
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Thread t = Thread.ofPlatform().start(() -> {
+                HttpClient client = HttpClient.newBuilder().version(version).build();
+                try {
+                    // Primera petición sola: con HTTP/2 hace el upgrade a h2c y deja la conexión abierta
+                    HttpResponse<byte[]> first = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    synchronized (versions) { versions.add(first.version().toString()); }
+                    Semaphore slots = new Semaphore(inFlight);
+                    List<CompletableFuture<?>> pending = new ArrayList<>();
+                    while (remaining.getAndDecrement() > 0) {
+                        slots.acquire();
+                        long sent = System.nanoTime();
+                        pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                                .whenComplete((response, error) -> {
+                                    long nanos = System.nanoTime() - sent;
+                                    latencyNanos.addAndGet(nanos);
+                                    maxNanos.accumulateAndGet(nanos, Math::max);
+                                    if (error != null || response.statusCode() != 200) errors.incrementAndGet();
+                                    else bodyBytes.addAndGet(response.body().length);
+                                    slots.release();
+                                }));
+                    }
+                    CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    client.close();
+                }
+            });
+            threads.add(t);
+        }
+        for (Thread t : threads) t.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (print) {
+            System.out.printf("%-16s %8.0f req/s  latencia media %6.2f ms  máx %7.2f ms  cuerpo %6.1f MB  errores %d  (%s)%n",
+                    name, requests / seconds, latencyNanos.get() / 1e6 / requests, maxNanos.get() / 1e6,
+                    bodyBytes.get() / 1e6, errors.get(), versions.stream().distinct().toList());
+        }
+    }
+
+    static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
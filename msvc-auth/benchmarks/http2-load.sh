@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Rendimiento y latencia de GET /api/auth/users con HTTP/1.1 frente a h2c, con y sin gzip.
+# Requiere h2load (paquete nghttp2-client) y un token de administrador:
+#
+#   TOKEN=$(curl -s -X POST localhost:8081/api/auth/login -H 'Content-Type: application/json' \
+#           -d '{"username":"admin","password":"..."}' | jq -r .token)
+#   TOKEN=$TOKEN msvc-auth/benchmarks/http2-load.sh
+set -euo pipefail
+
+BASE_URL=${BASE_URL:-http://localhost:8081}
+URL=${URL:-$BASE_URL/api/auth/users?size=100&count=none}
+REQUESTS=${REQUESTS:-20000}
+CLIENTS=${CLIENTS:-8}
+STREAMS=${STREAMS:-16}
+: "${TOKEN:?Falta TOKEN (JWT de un administrador)}"
+
+run() {
+  local name=$1
+  shift
+  echo "== $name"
+  h2load -n "$REQUESTS" -c "$CLIENTS" -H "Authorization: Bearer $TOKEN" "$@" "$URL" \
+    | grep -E '^(finished in|requests:|traffic:|time for request:|req/s)'
+  echo
+}
+
+# Calentamiento (JIT, pool de conexiones, caché de usuarios)
+h2load -n 2000 -c "$CLIENTS" --h1 -H "Authorization: Bearer $TOKEN" "$URL" > /dev/null
+
+# HTTP/1.1: una petición en vuelo por conexión
+run "HTTP/1.1" --h1 -m 1
+run "HTTP/1.1 + gzip" --h1 -m 1 -H 'Accept-Encoding: gzip'
+# h2c con prior knowledge: hasta STREAMS peticiones multiplexadas por conexión
+run "h2c" -m "$STREAMS"
+run "h2c + gzip" -m "$STREAMS" -H 'Accept-Encoding: gzip'
@@ -0,0 +1,76 @@
+-- Benchmark de búsqueda por subcadena sobre users con y sin índices trigram.
+-- Uso (base de datos desechable, NO la de producción):
+--   psql -h localhost -p 5433 -U authuser -d bench -f benchmarks/trigram-search.sql
+-- Crea su propio esquema "bench" para no tocar la tabla real.
+
+\timing on
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+SET search_path = bench, public;
+CREATE EXTENSION IF NOT EXISTS pg_trgm SCHEMA public;
+
+CREATE TABLE users (
+    id            bigserial PRIMARY KEY,
+    username      varchar(255) NOT NULL UNIQUE,
+    email         varchar(255) NOT NULL UNIQUE,
+    mobile_number varchar(255) NOT NULL UNIQUE,
+    password      varchar(255) NOT NULL,
+    first_name    varchar(255),
+    last_name     varchar(255)
+);
+
+-- 2M filas con nombres de un vocabulario pequeño (cardinalidad realista para nombre/apellido)
+INSERT INTO users (username, email, mobile_number, password, first_name, last_name)
+SELECT 'user_' || g || '_' || substr(md5(g::text), 1, 6),
+       'user' || g || '@' || (ARRAY['gmail.com','outlook.com','empresa.co','uniquindio.edu.co'])[1 + g % 4],
+       '+57' || lpad(g::text, 10, '0'),
+       '$2a$10$abcdefghijklmnopqrstuuSLqV7tX3Vd1yT0d9k3b6cJQn1b0a8Fy',
+       (ARRAY['Kevin','Laura','Andrés','Camila','Santiago','Valentina','Mateo','Sofía','Juan','María'])[1 + g % 10]
+           || substr(md5(g::text), 7, 3),
+       (ARRAY['Gómez','Rodríguez','Martínez','López','García','Hernández','Pérez','Sánchez','Ramírez','Torres'])[1 + (g / 10) % 10]
+           || substr(md5(g::text), 10, 3)
+FROM generate_series(1, 2000000) AS g;
+ANALYZE users;
+
+-- Consultas tal como las genera Hibernate para searchByAnyField / searchByFirstNameAndLastName
+\echo '=== Sin índices trigram ==='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM users
+WHERE username ILIKE '%a3f9%' ESCAPE '\' OR email ILIKE '%a3f9%' ESCAPE '\'
+   OR first_name ILIKE '%a3f9%' ESCAPE '\' OR last_name ILIKE '%a3f9%' ESCAPE '\'
+ORDER BY id LIMIT 10;
+
+-- count(*) que acompaña a cada página (countQuery de searchByAnyField): recorre todas las coincidencias
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM users
+WHERE username ILIKE '%a3f9%' ESCAPE '\' OR email ILIKE '%a3f9%' ESCAPE '\'
+   OR first_name ILIKE '%a3f9%' ESCAPE '\' OR last_name ILIKE '%a3f9%' ESCAPE '\';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM users
+WHERE first_name ILIKE '%camila1%' ESCAPE '\' AND last_name ILIKE '%torres%' ESCAPE '\';
+
+CREATE INDEX idx_users_username_trgm ON users USING gin (username gin_trgm_ops);
+CREATE INDEX idx_users_email_trgm ON users USING gin (email gin_trgm_ops);
+CREATE INDEX idx_users_first_name_trgm ON users USING gin (first_name gin_trgm_ops);
+CREATE INDEX idx_users_last_name_trgm ON users USING gin (last_name gin_trgm_ops);
+ANALYZE users;
+
+\echo '=== Con índices trigram (se espera BitmapOr/BitmapAnd de Bitmap Index Scan) ==='
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM users
+WHERE username ILIKE '%a3f9%' ESCAPE '\' OR email ILIKE '%a3f9%' ESCAPE '\'
+   OR first_name ILIKE '%a3f9%' ESCAPE '\' OR last_name ILIKE '%a3f9%' ESCAPE '\'
+ORDER BY id LIMIT 10;
+
+-- count(*) que acompaña a cada página (countQuery de searchByAnyField): recorre todas las coincidencias
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM users
+WHERE username ILIKE '%a3f9%' ESCAPE '\' OR email ILIKE '%a3f9%' ESCAPE '\'
+   OR first_name ILIKE '%a3f9%' ESCAPE '\' OR last_name ILIKE '%a3f9%' ESCAPE '\';
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM users
+WHERE first_name ILIKE '%camila1%' ESCAPE '\' AND last_name ILIKE '%torres%' ESCAPE '\';
+
+DROP SCHEMA bench CASCADE;
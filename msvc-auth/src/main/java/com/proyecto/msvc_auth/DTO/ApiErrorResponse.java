@@ -0,0 +1,14 @@
+package com.proyecto.msvc_auth.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Cuerpo de las respuestas de error de la API; "details" solo aparece cuando hay información adicional.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ApiErrorResponse(int status, String error, Object details) {
+
+    public ApiErrorResponse(int status, String error) {
+        this(status, error, null);
+    }
+}
@@ -1,7 +1,6 @@
 package com.proyecto.msvc_auth.DTO;
 
 
-import com.proyecto.msvc_auth.Entity.UserEntity;
 import lombok.Data;
 
 @Data
@@ -10,6 +9,6 @@ public class AuthResponse {
     private String token;
     private Integer expiresIn;
     private String tokenType;
-    private UserEntity user;
+    private UserResponse user;
 
 }
\ No newline at end of file
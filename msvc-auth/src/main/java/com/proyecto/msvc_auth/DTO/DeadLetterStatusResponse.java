@@ -0,0 +1,10 @@
+package com.proyecto.msvc_auth.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Estado de la cola de mensajes fallidos; "replayed" solo tras un reenvío.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DeadLetterStatusResponse(Integer replayed, long pending) {
+}
@@ -0,0 +1,7 @@
+package com.proyecto.msvc_auth.DTO;
+
+/**
+ * Respuesta que solo informa del resultado de una operación.
+ */
+public record MessageResponse(String message) {
+}
@@ -0,0 +1,18 @@
+package com.proyecto.msvc_auth.DTO;
+
+import com.proyecto.msvc_auth.models.CursorPage;
+import com.proyecto.msvc_auth.models.UserSummary;
+
+import java.util.List;
+
+/**
+ * Página de la paginación por cursor; nextCursor es null en la última página.
+ */
+public record UserCursorPageResponse(List<UserSummaryResponse> content, int size, String nextCursor,
+                                     boolean hasNext) {
+
+    public static UserCursorPageResponse from(CursorPage<UserSummary> page, int size) {
+        return new UserCursorPageResponse(UserPageResponse.summaries(page.content()), size, page.nextCursor(),
+                page.hasNext());
+    }
+}
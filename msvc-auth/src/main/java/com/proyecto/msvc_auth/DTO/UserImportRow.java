@@ -0,0 +1,22 @@
+package com.proyecto.msvc_auth.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de la importación masiva. Lleva la contraseña en claro o, si ya se tiene, su hash bcrypt
+ * en passwordHash (entonces no se vuelve a calcular).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportRow {
+    private String username;
+    private String email;
+    private String password;
+    private String passwordHash;
+    private String firstName;
+    private String lastName;
+    private String mobileNumber;
+}
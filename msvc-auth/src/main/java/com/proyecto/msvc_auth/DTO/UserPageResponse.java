@@ -0,0 +1,36 @@
+package com.proyecto.msvc_auth.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.proyecto.msvc_auth.models.ListingPage;
+import com.proyecto.msvc_auth.models.UserSummary;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Página de usuarios de los listados y la búsqueda. Los campos null (total no calculado, o
+ * hasNext/totalExact en la búsqueda) no se incluyen en el JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserPageResponse(List<UserSummaryResponse> content, Long totalElements, Integer totalPages,
+                               int size, int number, Boolean hasNext, Boolean totalExact) {
+
+    public static UserPageResponse exact(Page<UserSummary> page) {
+        return new UserPageResponse(summaries(page.getContent()), page.getTotalElements(), page.getTotalPages(),
+                page.getSize(), page.getNumber(), page.hasNext(), true);
+    }
+
+    public static UserPageResponse listing(ListingPage<UserSummary> page) {
+        return new UserPageResponse(summaries(page.content()), page.totalElements(), page.totalPages(),
+                page.size(), page.number(), page.hasNext(), page.totalExact());
+    }
+
+    public static UserPageResponse search(Page<UserSummary> page) {
+        return new UserPageResponse(summaries(page.getContent()), page.getTotalElements(), page.getTotalPages(),
+                page.getSize(), page.getNumber(), null, null);
+    }
+
+    static List<UserSummaryResponse> summaries(List<UserSummary> users) {
+        return users.stream().map(UserSummaryResponse::from).toList();
+    }
+}
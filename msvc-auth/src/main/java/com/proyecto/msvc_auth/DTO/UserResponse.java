@@ -0,0 +1,22 @@
+package com.proyecto.msvc_auth.DTO;
+
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+
+import java.util.Set;
+
+/**
+ * Detalle de un usuario tal como se expone en la API (nunca incluye la contraseña).
+ */
+public record UserResponse(Long id, String username, String email, String mobileNumber, String firstName,
+                           String lastName, Set<Role> authorities) {
+
+    public static UserResponse from(UserEntity user) {
+        return new UserResponse(user.getId(), user.getUsername(), user.getEmail(), user.getMobileNumber(),
+                user.getFirstName(), user.getLastName(), roles(user));
+    }
+
+    static Set<Role> roles(UserEntity user) {
+        return user.getAuthorities() == null ? Set.of() : Set.copyOf(user.getAuthorities());
+    }
+}
@@ -0,0 +1,18 @@
+package com.proyecto.msvc_auth.DTO;
+
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.models.UserSummary;
+
+import java.util.Set;
+
+/**
+ * Vista reducida de un usuario para los listados: sin contraseña ni teléfono.
+ */
+public record UserSummaryResponse(Long id, String username, String email, String firstName, String lastName,
+                                  Set<Role> authorities) {
+
+    public static UserSummaryResponse from(UserSummary user) {
+        return new UserSummaryResponse(user.id(), user.username(), user.email(), user.firstName(),
+                user.lastName(), user.authorities());
+    }
+}
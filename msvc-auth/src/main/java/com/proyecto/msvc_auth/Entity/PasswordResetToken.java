@@ -14,13 +14,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class PasswordResetToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "password_reset_tokens_id_generator")
+    @SequenceGenerator(name = "password_reset_tokens_id_generator", sequenceName = "password_reset_tokens_id_seq",
+            allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String token;
 
-    @Column(nullable = false)
+    // Un único token activo por usuario: solicitar otro reemplaza el anterior
+    @Column(nullable = false, unique = true)
     private Long userId;
 
     @Column(nullable = false)
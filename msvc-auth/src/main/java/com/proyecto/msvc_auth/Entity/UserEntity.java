@@ -4,18 +4,28 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
+// Los update solo incluyen las columnas modificadas (más la versión)
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserEntity {
+    // Secuencia con optimizador pooled: cada nextval reserva ID_ALLOCATION_SIZE ids, así que Hibernate
+    // no necesita ir a la base de datos por cada alta y puede agrupar los inserts en lotes JDBC
+    public static final String ID_SEQUENCE = "users_id_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_generator")
+    @SequenceGenerator(name = "users_id_generator", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -33,11 +43,20 @@ public class UserEntity {
     private String firstName;
     private String lastName;
 
+    // Al cargar una página de usuarios, los roles se leen en lotes (un IN por hasta 100 usuarios)
+    // en lugar de una consulta a user_roles por usuario
     @ElementCollection(targetClass = Role.class, fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Enumerated(EnumType.STRING)
     private Set<Role> authorities = new HashSet<>();
 
+    // Bloqueo optimista y ETag del usuario; también sube al cambiar los roles.
+    // Las actualizaciones masivas (update ... set) deben incrementarla a mano.
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public void addRole(Role role) {
         if (authorities == null) {
             authorities = new HashSet<>();
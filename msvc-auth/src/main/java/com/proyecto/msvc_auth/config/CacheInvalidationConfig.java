@@ -0,0 +1,34 @@
+package com.proyecto.msvc_auth.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Canal de invalidación de cachés entre réplicas: cada instancia tiene su propia cola anónima
+ * (exclusiva y auto-delete) enlazada al fanout, así que todas reciben cada aviso.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    public static final String CACHE_INVALIDATION_EXCHANGE = "microservices.cache.invalidation";
+
+    @Bean
+    public FanoutExchange cacheInvalidationExchange() {
+        return new FanoutExchange(CACHE_INVALIDATION_EXCHANGE);
+    }
+
+    @Bean
+    public Queue cacheInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding cacheInvalidationBinding(Queue cacheInvalidationQueue, FanoutExchange cacheInvalidationExchange) {
+        return BindingBuilder.bind(cacheInvalidationQueue).to(cacheInvalidationExchange);
+    }
+}
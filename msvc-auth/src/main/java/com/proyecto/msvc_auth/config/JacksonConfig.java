@@ -0,0 +1,20 @@
+package com.proyecto.msvc_auth.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Spring Boot registra en su ObjectMapper todos los Module del contexto. Blackbird sustituye la
+     * reflexión de getters, setters y constructores por accesores generados (LambdaMetafactory)
+     * que el JIT puede inlinear; afecta a la API, a la importación/exportación y a los logs enviados a RabbitMQ.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -1,15 +1,46 @@
 package com.proyecto.msvc_auth.config;
 
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RabbitConfig {
     public static final String USER_EVENTS_EXCHANGE = "microservices.events";
+    public static final String NOTIFICATIONS_QUEUE = "notifications.queue";
+
+    // Reintentos: el mensaje fallido espera en una cola de nivel con TTL y vuelve a su cola de origen
+    public static final String USER_EVENTS_RETRY_EXCHANGE = "microservices.events.retry";
+    public static final String USER_EVENTS_REQUEUE_EXCHANGE = "microservices.events.requeue";
+    public static final String USER_EVENTS_RETRY_QUEUE_PREFIX = "user.events.retry.";
+    public static final String USER_EVENTS_DLX = "microservices.events.dlx";
+    public static final String USER_EVENTS_DLQ = "user.events.dlq";
+    // Mensajes de la DLQ que no se pueden reprocesar (sin cola de origen); requieren revisión manual
+    public static final String USER_EVENTS_PARKING_QUEUE = "user.events.dlq.parked";
+
+    @Value("${rabbitmq.events.retry.initial-interval:1000}")
+    private long retryInitialInterval;
+
+    @Value("${rabbitmq.events.retry.multiplier:4}")
+    private double retryMultiplier;
+
+    @Value("${rabbitmq.events.retry.max-attempts:3}")
+    private int retryMaxAttempts;
 
     @Bean
     public TopicExchange userEventsExchange() {
@@ -17,10 +48,90 @@ public class RabbitConfig {
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter jsonMessageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
-        template.setMessageConverter(new Jackson2JsonMessageConverter());
+        template.setMessageConverter(jsonMessageConverter);
+        // Span de cada publicación y contexto de traza en la cabecera traceparent del mensaje
+        template.setObservationEnabled(true);
         return template;
     }
-}
 
+    @Bean
+    public Queue notificationsQueue() {
+        return new Queue(NOTIFICATIONS_QUEUE, true);
+    }
+
+    @Bean
+    public TopicExchange userEventsRetryExchange() {
+        return new TopicExchange(USER_EVENTS_RETRY_EXCHANGE);
+    }
+
+    @Bean
+    public TopicExchange userEventsRequeueExchange() {
+        return new TopicExchange(USER_EVENTS_REQUEUE_EXCHANGE);
+    }
+
+    @Bean
+    public DirectExchange userEventsDeadLetterExchange() {
+        return new DirectExchange(USER_EVENTS_DLX);
+    }
+
+    @Bean
+    public Queue userEventsDeadLetterQueue() {
+        return QueueBuilder.durable(USER_EVENTS_DLQ).build();
+    }
+
+    @Bean
+    public Queue userEventsParkingQueue() {
+        return QueueBuilder.durable(USER_EVENTS_PARKING_QUEUE).build();
+    }
+
+    @Bean
+    public Binding userEventsDeadLetterBinding(Queue userEventsDeadLetterQueue, DirectExchange userEventsDeadLetterExchange) {
+        return BindingBuilder.bind(userEventsDeadLetterQueue).to(userEventsDeadLetterExchange).with(USER_EVENTS_DLQ);
+    }
+
+    /**
+     * Una cola por intento con TTL creciente (backoff exponencial). Al expirar, el broker
+     * reenvía el mensaje al exchange de reencolado conservando su routing key
+     * {@code r<intento>.<cola origen>}, que lo devuelve a la cola de la que salió.
+     */
+    @Bean
+    public Declarables userEventsRetryQueues(TopicExchange userEventsRetryExchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int attempt = 1; attempt <= retryMaxAttempts; attempt++) {
+            Queue queue = QueueBuilder.durable(USER_EVENTS_RETRY_QUEUE_PREFIX + attempt)
+                    .ttl((int) retryDelay(attempt))
+                    .deadLetterExchange(USER_EVENTS_REQUEUE_EXCHANGE)
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(userEventsRetryExchange).with(retryRoutingPrefix(attempt) + ".#"));
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public Binding notificationsRequeueBinding(Queue notificationsQueue, TopicExchange userEventsRequeueExchange) {
+        return requeueBinding(notificationsQueue, userEventsRequeueExchange);
+    }
+
+    /**
+     * Vincula una cola consumidora al exchange de reencolado para que sus mensajes vuelvan tras el backoff.
+     */
+    public static Binding requeueBinding(Queue queue, TopicExchange userEventsRequeueExchange) {
+        return BindingBuilder.bind(queue).to(userEventsRequeueExchange).with("*." + queue.getName());
+    }
+
+    public static String retryRoutingPrefix(int attempt) {
+        return "r" + attempt;
+    }
+
+    long retryDelay(int attempt) {
+        return (long) (retryInitialInterval * Math.pow(retryMultiplier, attempt - 1.0));
+    }
+}
@@ -0,0 +1,111 @@
+package com.proyecto.msvc_auth.config;
+
+import com.proyecto.msvc_auth.util.DataSourceRouting;
+import com.proyecto.msvc_auth.util.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecturas en réplicas de PostgreSQL.
+ * Las transacciones readOnly (listados, búsquedas, conteos, exportación) se reparten entre las réplicas;
+ * las escrituras, las lecturas fuera de transacción y las que cargan la caché de usuarios van al primario.
+ * Tras confirmar una escritura, el resto de la petición también lee del primario (read-your-writes).
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.replicas.health-check-interval:5s}")
+    private Duration healthCheckInterval;
+
+    @Value("${datasource.replicas.read-your-writes-window:5s}")
+    private Duration readYourWritesWindow;
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource routingDataSource(DataSourceProperties properties, Environment environment,
+                                                      MeterRegistry meterRegistry) {
+        HikariDataSource primary = pool(properties, properties.determineUrl(), "primary", environment, meterRegistry);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = pool(properties, replicaUrls.get(i).trim(), name, environment, meterRegistry);
+            // Una escritura que llegue por error a una réplica falla en el driver, no en el servidor
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, healthCheckInterval);
+        Gauge.builder("datasource.replicas.healthy", routing, r -> r.healthyReplicas().size())
+                .description("Réplicas de lectura disponibles")
+                .register(meterRegistry);
+        return routing;
+    }
+
+    // La conexión real se pide con la primera sentencia, cuando ya se sabe si la transacción es readOnly
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // Spring Boot registra los TransactionExecutionListener en el gestor de transacciones
+    @Bean
+    public TransactionExecutionListener readYourWritesListener() {
+        return new TransactionExecutionListener() {
+            @Override
+            public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+                if (commitFailure == null && !transaction.isReadOnly()) {
+                    DataSourceRouting.pinToPrimary(readYourWritesWindow);
+                }
+            }
+        };
+    }
+
+    // Los hilos HTTP se reutilizan: la marca de "leer del primario" no pasa a la siguiente petición
+    @Bean
+    public Filter readYourWritesResetFilter() {
+        return (request, response, chain) -> {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                DataSourceRouting.clear();
+            }
+        };
+    }
+
+    // Mismo pool que configura Spring Boot (spring.datasource.hikari.*) apuntando a otra URL
+    private static HikariDataSource pool(DataSourceProperties properties, String url, String name,
+                                         Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
@@ -0,0 +1,15 @@
+package com.proyecto.msvc_auth.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tareas periódicas (@Scheduled). Se pueden desactivar con scheduling.enabled=false,
+ * por ejemplo en réplicas que solo deben atender peticiones.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,40 @@
+package com.proyecto.msvc_auth.config;
+
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.util.List;
+
+/**
+ * Trazas de extremo a extremo (Micrometer Observation exportado con OpenTelemetry).
+ * <p>
+ * Cada petición HTTP abre la traza; dentro quedan los métodos de UserServiceImpl (@Observed), la
+ * autenticación, las consultas JDBC (datasource-micrometer) y las publicaciones en RabbitMQ, que
+ * llevan el contexto en la cabecera {@code traceparent}. El muestreo se fija con
+ * {@code management.tracing.sampling.probability} y el colector con {@code management.otlp.tracing.endpoint}.
+ */
+@Configuration
+public class TracingConfig {
+
+    private static final List<String> UNTRACED_PATH_PREFIXES = List.of("/actuator", "/api/auth/health");
+
+    /**
+     * Sondas de Kubernetes y scrapes de Prometheus llegan cada pocos segundos y solo añadirían ruido.
+     */
+    @Bean
+    public ObservationPredicate skipProbeRequests() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && UNTRACED_PATH_PREFIXES.stream().anyMatch(request.getCarrier().getRequestURI()::startsWith));
+    }
+
+    /**
+     * Consultas sin una observación padre (comprobación de readiness, hilos propios): serían trazas
+     * sueltas de una sola consulta.
+     */
+    @Bean
+    public ObservationPredicate skipOrphanJdbcObservations() {
+        return (name, context) -> !name.startsWith("jdbc.") || context.getParentObservation() != null;
+    }
+}
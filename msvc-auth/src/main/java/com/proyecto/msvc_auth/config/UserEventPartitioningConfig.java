@@ -0,0 +1,62 @@
+package com.proyecto.msvc_auth.config;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Topología particionada para eventos de usuario.
+ * Cada evento se enruta a una de N colas según el hash de su userId, de modo que
+ * todos los eventos de un mismo usuario caen en la misma cola y se consumen en orden.
+ * Las consume msvc-notifications (un consumidor por cola, prefetch 1); este servicio solo publica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rabbitmq.events.partitioning.enabled", havingValue = "true")
+public class UserEventPartitioningConfig {
+
+    public static final String USER_EVENTS_PARTITIONED_EXCHANGE = "microservices.events.partitioned";
+    public static final String USER_EVENTS_PARTITION_QUEUE_PREFIX = "user.events.partition.";
+
+    @Value("${rabbitmq.events.partitioning.partitions:8}")
+    private int partitions;
+
+    public static String partitionQueueName(int partition) {
+        return USER_EVENTS_PARTITION_QUEUE_PREFIX + partition;
+    }
+
+    @Bean
+    public DirectExchange userEventsPartitionedExchange() {
+        return new DirectExchange(USER_EVENTS_PARTITIONED_EXCHANGE);
+    }
+
+    @Bean
+    public Declarables userEventPartitionQueues(DirectExchange userEventsPartitionedExchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            // single-active-consumer: varias réplicas pueden escuchar la partición,
+            // pero solo una consume a la vez y el orden por usuario se mantiene.
+            // Sin enlace al exchange de reencolado: las colas de espera devolverían el evento detrás
+            // de los siguientes del mismo usuario; el consumidor manda los fallos a la DLQ
+            Queue queue = QueueBuilder.durable(partitionQueueName(partition))
+                    .singleActiveConsumer()
+                    .build();
+            Binding binding = BindingBuilder.bind(queue)
+                    .to(userEventsPartitionedExchange)
+                    .with(String.valueOf(partition));
+            declarables.add(queue);
+            declarables.add(binding);
+        }
+        return new Declarables(declarables);
+    }
+}
@@ -0,0 +1,38 @@
+package com.proyecto.msvc_auth.controllers;
+
+import com.proyecto.msvc_auth.DTO.DeadLetterStatusResponse;
+import com.proyecto.msvc_auth.services.DeadLetterService;
+import com.proyecto.msvc_auth.util.RabbitMQLogger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/auth/admin/events")
+@RequiredArgsConstructor
+public class EventAdminController {
+    private final DeadLetterService deadLetterService;
+    private final RabbitMQLogger rabbitMQLogger;
+
+    @GetMapping("/dlq")
+    public ResponseEntity<DeadLetterStatusResponse> getDeadLetterStatus() {
+        return ResponseEntity.ok(new DeadLetterStatusResponse(null, deadLetterService.countDeadLetters()));
+    }
+
+    @PostMapping("/dlq/replay")
+    public ResponseEntity<DeadLetterStatusResponse> replayDeadLetters(@RequestParam(defaultValue = "1000") int limit) {
+        if (limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El límite debe ser mayor que cero");
+        }
+        int replayed = deadLetterService.replayDeadLetters(limit);
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("replayed", replayed);
+        rabbitMQLogger.info("Dead letters replayed", meta);
+        return ResponseEntity.ok(new DeadLetterStatusResponse(replayed, deadLetterService.countDeadLetters()));
+    }
+}
@@ -1,39 +1,75 @@
 package com.proyecto.msvc_auth.controllers;
 
-import lombok.extern.slf4j.Slf4j;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto.msvc_auth.util.ReadinessChecker;
+import com.proyecto.msvc_auth.util.ReadinessChecker.Readiness;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Sondas de Kubernetes. Las respuestas se construyen una vez y se devuelven siempre las mismas
+ * instancias: una sonda no reserva memoria ni escribe en el log. La readiness refleja el último
+ * resultado de {@link ReadinessChecker}, no consulta las dependencias en la petición.
+ */
 @RestController
 @RequestMapping("/api/auth/health")
-@Slf4j
+@RequiredArgsConstructor
 public class HealthController {
 
     public static final String RESPONSE_KEY1 = "status";
     public static final String K_2 = "message";
 
+    private static final ResponseEntity<byte[]> HEALTHY = json(HttpStatus.OK, "ok", "Todo está bien");
+    private static final ResponseEntity<byte[]> LIVE = json(HttpStatus.OK, "ok", "Live");
+    private static final Map<Readiness, ResponseEntity<byte[]>> READINESS = new EnumMap<>(Readiness.class);
+
+    static {
+        READINESS.put(Readiness.READY, json(HttpStatus.OK, "ok", "Ready"));
+        READINESS.put(Readiness.DATABASE_DOWN,
+                json(HttpStatus.SERVICE_UNAVAILABLE, "unavailable", "PostgreSQL no disponible"));
+        READINESS.put(Readiness.BROKER_DOWN,
+                json(HttpStatus.SERVICE_UNAVAILABLE, "unavailable", "RabbitMQ no disponible"));
+        READINESS.put(Readiness.DOWN,
+                json(HttpStatus.SERVICE_UNAVAILABLE, "unavailable", "Dependencias no disponibles"));
+    }
+
+    private final ReadinessChecker readinessChecker;
+
     @GetMapping
-    public ResponseEntity<Map<String, String>> healthCheck() {
-        log.info("Health check endpoint called, service is healthy.");
-        Map<String, String> body = Map.of(RESPONSE_KEY1, "ok", K_2, "Todo está bien");
-        return ResponseEntity.ok(body);
+    public ResponseEntity<byte[]> healthCheck() {
+        return HEALTHY;
     }
 
     @GetMapping("/ready")
-    public ResponseEntity<Map<String, String>> readinessCheck() {
-        log.info("Readiness check endpoint called, service is ready.");
-        Map<String, String> body = Map.of(RESPONSE_KEY1, "ok", K_2, "Ready");
-        return ResponseEntity.ok(body);
+    public ResponseEntity<byte[]> readinessCheck() {
+        return READINESS.get(readinessChecker.readiness());
     }
 
     @GetMapping("/live")
-    public ResponseEntity<Map<String, String>> livenessCheck() {
-        log.info("Liveness check endpoint called, service is alive.");
-        Map<String, String> body = Map.of(RESPONSE_KEY1, "ok", K_2, "Live");
-        return ResponseEntity.ok(body);
+    public ResponseEntity<byte[]> livenessCheck() {
+        return LIVE;
+    }
+
+    private static ResponseEntity<byte[]> json(HttpStatus status, String state, String message) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put(RESPONSE_KEY1, state);
+        body.put(K_2, message);
+        try {
+            return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON)
+                    .body(new ObjectMapper().writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,70 @@
+package com.proyecto.msvc_auth.controllers;
+
+import com.proyecto.msvc_auth.models.UserImportFormat;
+import com.proyecto.msvc_auth.models.UserImportReport;
+import com.proyecto.msvc_auth.services.UserExportService;
+import com.proyecto.msvc_auth.services.UserImportService;
+import com.proyecto.msvc_auth.util.RabbitMQLogger;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/auth/admin/users")
+@RequiredArgsConstructor
+public class UserAdminController {
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+    private final RabbitMQLogger rabbitMQLogger;
+
+    // El cuerpo se recibe como flujo y se procesa por bloques: no se carga entero en memoria
+    @PostMapping(value = "/import", consumes = {UserImportFormat.NDJSON_MEDIA_TYPE, UserImportFormat.CSV_MEDIA_TYPE})
+    public ResponseEntity<UserImportReport> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                        InputStream body) throws IOException {
+        UserImportReport report;
+        try {
+            report = userImportService.importUsers(body, UserImportFormat.fromContentType(contentType));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("importId", report.importId());
+        meta.put("imported", report.imported());
+        meta.put("failed", report.failed());
+        rabbitMQLogger.info("Users imported", meta);
+        return ResponseEntity.ok(report);
+    }
+
+    // Exportación NDJSON en streaming (gzip=true la entrega comprimida como users.ndjson.gz).
+    // Si el cliente corta la descarga, la escritura falla y la consulta se cancela.
+    @GetMapping("/export")
+    public void exportUsers(@RequestParam(defaultValue = "false") boolean gzip,
+                            HttpServletResponse response) throws IOException {
+        rabbitMQLogger.info("Exporting users");
+        response.setContentType(gzip ? "application/gzip" : UserImportFormat.NDJSON_MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users.ndjson" + (gzip ? ".gz" : "") + "\"");
+        long exported;
+        try (OutputStream output = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), 8192)
+                : response.getOutputStream()) {
+            exported = userExportService.exportUsers(output);
+        }
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("exported", exported);
+        rabbitMQLogger.info("Users exported", meta);
+    }
+}
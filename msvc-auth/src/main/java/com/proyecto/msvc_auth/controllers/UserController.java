@@ -2,10 +2,19 @@ package com.proyecto.msvc_auth.controllers;
 
 import com.proyecto.msvc_auth.DTO.AuthResponse;
 import com.proyecto.msvc_auth.DTO.LoginRequest;
+import com.proyecto.msvc_auth.DTO.MessageResponse;
+import com.proyecto.msvc_auth.DTO.UserCursorPageResponse;
+import com.proyecto.msvc_auth.DTO.UserPageResponse;
 import com.proyecto.msvc_auth.DTO.UserRegistrationRequest;
+import com.proyecto.msvc_auth.DTO.UserResponse;
 import com.proyecto.msvc_auth.DTO.UserUpdateRequest;
 import com.proyecto.msvc_auth.Entity.Role;
 import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.models.CountMode;
+import com.proyecto.msvc_auth.models.CursorPage;
+import com.proyecto.msvc_auth.models.ListingPage;
+import com.proyecto.msvc_auth.models.UserCursor;
+import com.proyecto.msvc_auth.models.UserSummary;
 
 import com.proyecto.msvc_auth.services.UserService;
 import com.proyecto.msvc_auth.util.RabbitMQLogger;
@@ -14,65 +23,161 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class UserController {
+    // El cliente puede guardar la respuesta pero debe revalidarla (If-None-Match) antes de usarla
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final UserService userService;
     private final RabbitMQLogger rabbitMQLogger;
 
     @PostMapping("/users")
-    public ResponseEntity<UserEntity> registerUser(@RequestBody UserRegistrationRequest request) {
+    public ResponseEntity<UserResponse> registerUser(@RequestBody UserRegistrationRequest request) {
         rabbitMQLogger.info("Registering new user: " + request.getEmail());
         UserEntity createdUser = userService.registerUser(request);
         Map<String, Object> meta = new HashMap<>();
         meta.put("userId", createdUser.getId());
         meta.put("email", createdUser.getEmail());
         rabbitMQLogger.info("User registered successfully", meta);
-        return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
+        return new ResponseEntity<>(UserResponse.from(createdUser), HttpStatus.CREATED);
     }
 
     @GetMapping("/users")
-    public ResponseEntity<Map<String, Object>> getAllUsers(
+    public ResponseEntity<?> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String firstName,
-            @RequestParam(required = false) String lastName) {
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = UserCursor.SORT_ID) String sort,
+            @RequestParam(defaultValue = "exact") String count) {
+        if (cursor != null) {
+            return getUsersByCursor(cursor, sort, size, firstName, lastName);
+        }
+        CountMode countMode;
+        try {
+            countMode = CountMode.from(count);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Pageable paging = PageRequest.of(page, size);
+        if (countMode != CountMode.EXACT) {
+            return getUsersListing(paging, firstName, lastName, countMode);
+        }
+        Page<UserSummary> usersPage = userService.getAllUsersFiltered(paging, firstName, lastName);
+        return withWeakETag(UserPageResponse.exact(usersPage), usersPage.getContent(),
+                usersPage.getTotalElements(), usersPage.getNumber(), usersPage.getSize());
+    }
+
+    // Listado sin count(*) por petición: el total se omite (none), se estima (estimated)
+    // o se reutiliza un conteo reciente (cached); "totalExact" indica si es fiable
+    private ResponseEntity<UserPageResponse> getUsersListing(Pageable paging, String firstName, String lastName,
+                                                             CountMode countMode) {
+        ListingPage<UserSummary> usersPage = userService.getUsersListing(paging, firstName, lastName, countMode);
+        return withWeakETag(UserPageResponse.listing(usersPage), usersPage.content(),
+                usersPage.totalElements(), usersPage.totalExact(), usersPage.number(), usersPage.size(),
+                usersPage.hasNext());
+    }
+
+    // Paginación por cursor: "cursor" vacío pide la primera página y cada respuesta
+    // trae el nextCursor de la siguiente. Pensado para recorrer la tabla completa.
+    private ResponseEntity<UserCursorPageResponse> getUsersByCursor(String cursor, String sort, int size,
+                                                                    String firstName, String lastName) {
+        if ((firstName != null && !firstName.isBlank()) || (lastName != null && !lastName.isBlank())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La paginación por cursor no admite filtros");
+        }
+        if (!UserCursor.SORTS.contains(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ordenación no soportada: " + sort);
+        }
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El tamaño de página debe ser mayor que cero");
+        }
+        CursorPage<UserSummary> usersPage;
+        try {
+            UserCursor after = cursor.isBlank() ? null : UserCursor.decode(cursor);
+            usersPage = userService.getUsersByCursor(sort, after, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return withWeakETag(UserCursorPageResponse.from(usersPage, size), usersPage.content(),
+                size, usersPage.nextCursor());
+    }
+
+    @GetMapping("/users/search")
+    public ResponseEntity<UserPageResponse> searchUsers(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        if (query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El término de búsqueda es obligatorio");
+        }
         Pageable paging = PageRequest.of(page, size);
-        Page<UserEntity> usersPage = userService.getAllUsersFiltered(paging, firstName, lastName);
-        Map<String, Object> response = new HashMap<>();
-        response.put("content", usersPage.getContent());
-        response.put("totalElements", usersPage.getTotalElements());
-        response.put("totalPages", usersPage.getTotalPages());
-        response.put("size", usersPage.getSize());
-        response.put("number", usersPage.getNumber());
-        return ResponseEntity.ok(response);
+        Page<UserSummary> usersPage = userService.searchUsers(query, paging);
+        return ResponseEntity.ok(UserPageResponse.search(usersPage));
     }
 
     @GetMapping("/users/{id}")
-    public ResponseEntity<UserEntity> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserResponse> getUserById(@PathVariable Long id, WebRequest request) {
+        // Revalidación: basta la versión (de la caché o una consulta de una columna) para responder 304
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = userService.getUserVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = userETag(id, version.get());
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+            }
+        }
         Optional<UserEntity> userOpt = userService.getUserById(id);
-        // No lógica ni throws, solo respuesta directa
-        return userOpt.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        return userOpt.map(user -> ResponseEntity.ok()
+                        .eTag(userETag(user.getId(), user.getVersion()))
+                        .cacheControl(REVALIDATE)
+                        .body(UserResponse.from(user)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("/users/{id}")
-    public ResponseEntity<UserEntity> updateUser(@PathVariable Long id, @RequestBody UserUpdateRequest updateRequest) {
+    public ResponseEntity<UserResponse> updateUser(@PathVariable Long id, @RequestBody UserUpdateRequest updateRequest) {
         Map<String, Object> meta = new HashMap<>();
         meta.put("userId", id);
         rabbitMQLogger.info("Updating user", meta);
-        Optional<UserEntity> userOpt = userService.getUserById(id);
-        // No lógica ni throws, solo respuesta directa
-        return userOpt.map(user -> ResponseEntity.ok(userService.updateUser(id, updateRequest)))
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        // Si no existe, UserNotFoundException -> 404
+        UserEntity updatedUser = userService.updateUser(id, updateRequest);
+        return ResponseEntity.ok().eTag(userETag(id, updatedUser.getVersion())).body(UserResponse.from(updatedUser));
+    }
+
+    // Actualización parcial condicionada: If-Match con el ETag leído en el GET (o "*").
+    // Si el usuario cambió desde entonces responde 412 en lugar de pisar la otra edición.
+    @PatchMapping("/users/{id}")
+    public ResponseEntity<UserResponse> patchUser(@PathVariable Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @RequestBody UserUpdateRequest updateRequest) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED, "La cabecera If-Match es obligatoria");
+        }
+        Long expectedVersion = "*".equals(ifMatch.trim()) ? null : versionFromETag(id, ifMatch);
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("userId", id);
+        meta.put("ifMatch", ifMatch);
+        rabbitMQLogger.info("Patching user", meta);
+        UserEntity updatedUser = userService.updateUser(id, updateRequest, expectedVersion);
+        return ResponseEntity.ok().eTag(userETag(id, updatedUser.getVersion())).body(UserResponse.from(updatedUser));
     }
 
     @DeleteMapping("/users/{id}")
@@ -80,13 +185,9 @@ public class UserController {
         Map<String, Object> meta = new HashMap<>();
         meta.put("userId", id);
         rabbitMQLogger.info("Deleting user", meta);
-        Optional<UserEntity> userOpt = userService.getUserById(id);
-        // No lógica ni throws, solo respuesta directa
-        if (userOpt.isPresent()) {
-            userService.deleteUser(id);
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.notFound().build();
+        // Si no existe, UserNotFoundException -> 404
+        userService.deleteUser(id);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/login")
@@ -100,7 +201,7 @@ public class UserController {
     }
 
     @PostMapping("/tokens")
-    public ResponseEntity<Map<String, String>> requestPasswordRecovery(@RequestBody Map<String, String> request) {
+    public ResponseEntity<MessageResponse> requestPasswordRecovery(@RequestBody Map<String, String> request) {
         String email = request.get("email");
         if (email == null || email.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El email es obligatorio");
@@ -109,13 +210,12 @@ public class UserController {
         meta.put("email", email);
         rabbitMQLogger.info("Password recovery requested", meta);
         userService.requestPasswordRecovery(email);
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Se ha enviado un correo con instrucciones para restablecer la contraseña");
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(
+                new MessageResponse("Se ha enviado un correo con instrucciones para restablecer la contraseña"));
     }
 
     @PatchMapping("/users/{id}/password")
-    public ResponseEntity<Map<String, String>> resetPassword(@PathVariable Long id, @RequestBody Map<String, String> request) {
+    public ResponseEntity<MessageResponse> resetPassword(@PathVariable Long id, @RequestBody Map<String, String> request) {
         String token = request.get("token");
         String newPassword = request.get("newPassword");
         if (token == null || token.isEmpty() || newPassword == null || newPassword.isEmpty()) {
@@ -125,19 +225,48 @@ public class UserController {
         meta.put("userId", id);
         rabbitMQLogger.info("Password reset", meta);
         userService.resetPasswordForUser(id, token, newPassword);
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Contraseña restablecida correctamente");
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new MessageResponse("Contraseña restablecida correctamente"));
     }
 
     @PutMapping("/users/{id}/roles")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<UserEntity> updateUserRoles(@PathVariable Long id, @RequestBody Set<Role> roles) {
+    public ResponseEntity<UserResponse> updateUserRoles(@PathVariable Long id, @RequestBody Set<Role> roles) {
         Map<String, Object> meta = new HashMap<>();
         meta.put("userId", id);
         meta.put("roles", roles);
         rabbitMQLogger.info("User roles updated", meta);
         UserEntity updatedUser = userService.updateUserRoles(id, roles);
-        return ResponseEntity.ok(updatedUser);
+        return ResponseEntity.ok(UserResponse.from(updatedUser));
+    }
+
+    // ETag fuerte: cambia con cada escritura del usuario (columna @Version)
+    private static String userETag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    // If-Match usa comparación fuerte: un ETag débil, de otro usuario o mal formado nunca coincide
+    private static Long versionFromETag(Long id, String ifMatch) {
+        String prefix = "\"" + id + "-";
+        String etag = ifMatch.trim();
+        if (etag.startsWith(prefix) && etag.endsWith("\"") && etag.length() > prefix.length() + 1) {
+            try {
+                return Long.valueOf(etag.substring(prefix.length(), etag.length() - 1));
+            } catch (NumberFormatException e) {
+                // se trata como no coincidente
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "El ETag no corresponde a la versión actual");
+    }
+
+    // ETag débil de un listado: ids y versiones de la página más sus metadatos (totales, cursor...).
+    // Si coincide con If-None-Match, Spring responde 304 sin serializar el cuerpo.
+    private static <T> ResponseEntity<T> withWeakETag(T body, List<UserSummary> users, Object... metadata) {
+        StringBuilder state = new StringBuilder();
+        users.forEach(user -> state.append(user.id()).append(':').append(user.version()).append(','));
+        for (Object value : metadata) {
+            state.append(value).append(';');
+        }
+        String hash = DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8));
+        return ResponseEntity.ok().eTag("W/\"" + hash + "\"").cacheControl(REVALIDATE).body(body);
     }
 }
@@ -0,0 +1,7 @@
+package com.proyecto.msvc_auth.exceptions;
+
+public class UserNotFoundException extends RuntimeException {
+    public UserNotFoundException(String s) {
+        super(s);
+    }
+}
@@ -0,0 +1,21 @@
+package com.proyecto.msvc_auth.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aviso de invalidación que se difunde a todas las réplicas para que descarten su copia local.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    public static final String USER = "user";
+    public static final String USER_LISTINGS = "user-listings";
+    public static final String ALL = "*";
+
+    private String entityType; // user, user-listings, * (vaciar todo)
+    private String key;
+    private String origin; // réplica que hizo la escritura
+}
@@ -0,0 +1,28 @@
+package com.proyecto.msvc_auth.models;
+
+import java.util.Locale;
+
+/**
+ * Cómo se obtiene el total de elementos en los listados paginados.
+ */
+public enum CountMode {
+    /** count(*) con los mismos filtros en cada petición */
+    EXACT,
+    /** Sin total: solo se indica si hay página siguiente */
+    NONE,
+    /** Estimación de las estadísticas de PostgreSQL (o el conteo cacheado si no aplica) */
+    ESTIMATED,
+    /** count(*) cacheado durante un tiempo limitado */
+    CACHED;
+
+    /**
+     * @throws IllegalArgumentException si el modo no existe
+     */
+    public static CountMode from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Modo de conteo no soportado: " + value, e);
+        }
+    }
+}
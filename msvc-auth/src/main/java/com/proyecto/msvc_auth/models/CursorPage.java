@@ -0,0 +1,16 @@
+package com.proyecto.msvc_auth.models;
+
+import java.util.List;
+
+/**
+ * Resultado de una consulta paginada por cursor.
+ *
+ * @param content    filas de la página
+ * @param nextCursor cursor para pedir la siguiente página (null si no hay más)
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.proyecto.msvc_auth.models;
+
+import java.util.List;
+
+/**
+ * Página de un listado cuyo total puede ser exacto, aproximado o no conocerse.
+ *
+ * @param totalElements total de elementos, o null si no se ha calculado
+ * @param totalExact    true si el total procede de un count(*) actual
+ */
+public record ListingPage<T>(List<T> content, int number, int size, boolean hasNext,
+                             Long totalElements, boolean totalExact) {
+
+    public Integer totalPages() {
+        if (totalElements == null) {
+            return null;
+        }
+        return size == 0 ? 1 : (int) Math.ceil((double) totalElements / (double) size);
+    }
+}
@@ -0,0 +1,47 @@
+package com.proyecto.msvc_auth.models;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Posición de la última fila devuelta en la paginación por cursor (keyset).
+ * Se serializa como un token opaco en base64url; el cliente solo lo reenvía.
+ *
+ * @param sort columna de ordenación ("id" o "username")
+ * @param key  valor de la columna de ordenación en la última fila (null si sort es "id")
+ * @param id   id de la última fila, desempate para que el orden sea total
+ */
+public record UserCursor(String sort, String key, Long id) {
+
+    public static final String SORT_ID = "id";
+    public static final String SORT_USERNAME = "username";
+    public static final Set<String> SORTS = Set.of(SORT_ID, SORT_USERNAME);
+
+    public String encode() {
+        String raw = sort + ":" + id + ":" + (key == null ? "" : key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cursor está mal formado
+     */
+    public static UserCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+        String[] parts = raw.split(":", 3);
+        if (parts.length != 3 || !SORTS.contains(parts[0])) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        try {
+            Long id = Long.valueOf(parts[1]);
+            return new UserCursor(parts[0], SORT_ID.equals(parts[0]) ? null : parts[2], id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.proyecto.msvc_auth.models;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos admitidos por la importación masiva de usuarios.
+ */
+public enum UserImportFormat {
+    /** Un objeto JSON por línea */
+    NDJSON,
+    /** CSV con cabecera en la primera línea */
+    CSV;
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+
+    /**
+     * @throws IllegalArgumentException si el tipo de contenido no corresponde a ningún formato
+     */
+    public static UserImportFormat fromContentType(String contentType) {
+        MediaType mediaType = contentType == null ? null : MediaType.parseMediaType(contentType);
+        if (mediaType != null && mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))) {
+            return NDJSON;
+        }
+        if (mediaType != null && mediaType.isCompatibleWith(MediaType.parseMediaType(CSV_MEDIA_TYPE))) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Formato de importación no soportado: " + contentType);
+    }
+}
@@ -0,0 +1,20 @@
+package com.proyecto.msvc_auth.models;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de usuarios.
+ *
+ * @param total           filas leídas (sin contar cabecera ni líneas vacías)
+ * @param errors          filas rechazadas con su motivo, como máximo las primeras configuradas
+ * @param errorsTruncated true si hubo más errores de los incluidos en {@code errors}
+ */
+public record UserImportReport(String importId, long total, long imported, long failed, long durationMs,
+                               List<RowError> errors, boolean errorsTruncated) {
+
+    /**
+     * @param line número de línea en el fichero (empezando en 1)
+     */
+    public record RowError(long line, String username, String error) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.proyecto.msvc_auth.models;
+
+import com.proyecto.msvc_auth.Entity.Role;
+
+/**
+ * Rol de un usuario, leído en bloque para completar los {@link UserSummary} de una página.
+ */
+public record UserRoleRow(Long userId, Role role) {
+}
@@ -0,0 +1,23 @@
+package com.proyecto.msvc_auth.models;
+
+import com.proyecto.msvc_auth.Entity.Role;
+
+import java.util.Set;
+
+/**
+ * Fila de los listados de usuarios: solo las columnas que se muestran (sin contraseña ni teléfono)
+ * y la versión, que forma parte del ETag del listado. Las consultas la construyen directamente
+ * (select new), sin cargar entidades; los roles se añaden después con una consulta por página.
+ */
+public record UserSummary(Long id, String username, String email, String firstName, String lastName,
+                          Long version, Set<Role> authorities) {
+
+    // Constructor que usan las consultas JPQL
+    public UserSummary(Long id, String username, String email, String firstName, String lastName, Long version) {
+        this(id, username, email, firstName, lastName, version, Set.of());
+    }
+
+    public UserSummary withAuthorities(Set<Role> authorities) {
+        return new UserSummary(id, username, email, firstName, lastName, version, Set.copyOf(authorities));
+    }
+}
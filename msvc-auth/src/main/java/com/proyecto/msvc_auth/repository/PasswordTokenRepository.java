@@ -2,7 +2,11 @@ package com.proyecto.msvc_auth.repository;
 
 import com.proyecto.msvc_auth.Entity.PasswordResetToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,4 +22,28 @@ public interface PasswordTokenRepository extends JpaRepository<PasswordResetToke
     void deleteByExpiryDateBefore(LocalDateTime dateTime);
     boolean existsByToken(String token);
     boolean existsByUserIdAndExpiryDateAfter(Long userId, LocalDateTime dateTime);
+
+    // Token activo del usuario (uno por usuario, uk_password_reset_tokens_user_id): lo crea o reemplaza
+    // el anterior en una sola sentencia (ON CONFLICT en PostgreSQL, MERGE en otras bases)
+    @Modifying
+    @Query("insert into PasswordResetToken (token, userId, expiryDate) values (:token, :userId, :expiryDate) " +
+            "on conflict(userId) do update set token = excluded.token, expiryDate = excluded.expiryDate")
+    int upsertForUser(@Param("userId") Long userId,
+                      @Param("token") String token,
+                      @Param("expiryDate") LocalDateTime expiryDate);
+
+    // Consume el token si pertenece al usuario y sigue vigente; el propio borrado es la comprobación
+    // (devuelve 1) y garantiza que dos peticiones simultáneas no lo usen ambas
+    @Modifying
+    @Query("delete from PasswordResetToken t where t.token = :token and t.userId = :userId and t.expiryDate > :now")
+    int consume(@Param("token") String token, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Borra como mucho "limit" tokens caducados, los más antiguos primero (índice sobre expiry_date).
+    // Cada llamada es una transacción corta: el barrido va por lotes para no retener bloqueos.
+    @Modifying
+    @Transactional
+    @Query(value = "delete from password_reset_tokens where id in (" +
+            "select id from password_reset_tokens where expiry_date < :now order by expiry_date limit :limit)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
 }
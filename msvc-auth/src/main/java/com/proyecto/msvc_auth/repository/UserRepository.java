@@ -1,11 +1,24 @@
 package com.proyecto.msvc_auth.repository;
 
 import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.models.UserRoleRow;
+import com.proyecto.msvc_auth.models.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByUsername(String username);
@@ -19,17 +32,134 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     boolean existsByEmail(String email);
 
 
-    // Search users by any field
-    Page<UserEntity> findByUsernameContainingOrEmailContainingOrFirstNameContainingOrLastNameContaining(
-            String username, String email, String firstName, String lastName, Pageable pageable);
+    // Los listados y la búsqueda devuelven proyecciones UserSummary: solo se leen las columnas
+    // que se muestran y no se crean entidades gestionadas. Los roles se cargan aparte con
+    // findRolesByUserIds, una consulta por página.
+    String SUMMARY = "select new com.proyecto.msvc_auth.models.UserSummary(" +
+            "u.id, u.username, u.email, u.firstName, u.lastName, u.version) from UserEntity u";
+    String COUNT = "select count(u) from UserEntity u";
+
+    // Las búsquedas por subcadena usan ilike '%x%' sobre la columna sin transformar,
+    // que es lo que pueden servir los índices GIN pg_trgm (lower(col) like ... no los usa).
+    // El patrón llega ya escapado y con los comodines puestos.
+
+    String ANY_FIELD_MATCHES = "u.username ilike :pattern escape '\\' " +
+            "or u.email ilike :pattern escape '\\' " +
+            "or u.firstName ilike :pattern escape '\\' " +
+            "or u.lastName ilike :pattern escape '\\'";
+    String FIRST_NAME_MATCHES = "u.firstName ilike :firstName escape '\\'";
+    String LAST_NAME_MATCHES = "u.lastName ilike :lastName escape '\\'";
+
+    @Query(value = SUMMARY, countQuery = COUNT)
+    Page<UserSummary> findSummaries(Pageable pageable);
+
+    // Buscar usuarios por cualquier campo
+    @Query(value = SUMMARY + " where " + ANY_FIELD_MATCHES, countQuery = COUNT + " where " + ANY_FIELD_MATCHES)
+    Page<UserSummary> searchByAnyField(@Param("pattern") String pattern, Pageable pageable);
 
     // Filtrar por nombre (firstName) ignorando mayúsculas/minúsculas
-    Page<UserEntity> findByFirstNameContainingIgnoreCase(String firstName, Pageable pageable);
+    @Query(value = SUMMARY + " where " + FIRST_NAME_MATCHES, countQuery = COUNT + " where " + FIRST_NAME_MATCHES)
+    Page<UserSummary> searchByFirstName(@Param("firstName") String firstName, Pageable pageable);
 
     // Filtrar por apellido (lastName) ignorando mayúsculas/minúsculas
-    Page<UserEntity> findByLastNameContainingIgnoreCase(String lastName, Pageable pageable);
+    @Query(value = SUMMARY + " where " + LAST_NAME_MATCHES, countQuery = COUNT + " where " + LAST_NAME_MATCHES)
+    Page<UserSummary> searchByLastName(@Param("lastName") String lastName, Pageable pageable);
 
     // Filtrar por nombre y apellido (ambos) ignorando mayúsculas/minúsculas
-    Page<UserEntity> findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(String firstName, String lastName, Pageable pageable);
+    @Query(value = SUMMARY + " where " + FIRST_NAME_MATCHES + " and " + LAST_NAME_MATCHES,
+            countQuery = COUNT + " where " + FIRST_NAME_MATCHES + " and " + LAST_NAME_MATCHES)
+    Page<UserSummary> searchByFirstNameAndLastName(@Param("firstName") String firstName,
+                                                   @Param("lastName") String lastName,
+                                                   Pageable pageable);
+
+    // Variantes Slice de los filtros anteriores: no lanzan el count(*) asociado a cada Page,
+    // solo piden una fila extra para saber si hay página siguiente.
+
+    @Query(SUMMARY)
+    Slice<UserSummary> sliceAll(Pageable pageable);
+
+    @Query(SUMMARY + " where " + FIRST_NAME_MATCHES)
+    Slice<UserSummary> sliceByFirstName(@Param("firstName") String firstName, Pageable pageable);
+
+    @Query(SUMMARY + " where " + LAST_NAME_MATCHES)
+    Slice<UserSummary> sliceByLastName(@Param("lastName") String lastName, Pageable pageable);
+
+    @Query(SUMMARY + " where " + FIRST_NAME_MATCHES + " and " + LAST_NAME_MATCHES)
+    Slice<UserSummary> sliceByFirstNameAndLastName(@Param("firstName") String firstName,
+                                                   @Param("lastName") String lastName,
+                                                   Pageable pageable);
+
+    @Query("select new com.proyecto.msvc_auth.models.UserRoleRow(u.id, r) " +
+            "from UserEntity u join u.authorities r where u.id in :ids")
+    List<UserRoleRow> findRolesByUserIds(@Param("ids") Collection<Long> ids);
+
+    // Conteos de los mismos filtros, para el total cacheado
+
+    @Query("select count(u) from UserEntity u where " + FIRST_NAME_MATCHES)
+    long countByFirstNameMatching(@Param("firstName") String firstName);
+
+    @Query("select count(u) from UserEntity u where " + LAST_NAME_MATCHES)
+    long countByLastNameMatching(@Param("lastName") String lastName);
+
+    @Query("select count(u) from UserEntity u where " + FIRST_NAME_MATCHES + " and " + LAST_NAME_MATCHES)
+    long countByFirstNameAndLastNameMatching(@Param("firstName") String firstName,
+                                             @Param("lastName") String lastName);
+
+    // Número de filas estimado por el planificador de PostgreSQL (actualizado por ANALYZE/autovacuum).
+    // Vale -1 si la tabla nunca se ha analizado.
+    @Query(value = "select cast(reltuples as bigint) from pg_class where oid = to_regclass('users')", nativeQuery = true)
+    Long estimateRowCount();
+
+    // Paginación por cursor (keyset): en lugar de OFFSET se filtra a partir de la última
+    // clave (sortKey, id) vista, así cada página cuesta lo mismo sin importar su profundidad
+    // y las inserciones concurrentes no desplazan las filas ya recorridas.
+
+    @Query(SUMMARY + " order by u.id")
+    List<UserSummary> findFirstPageOrderById(Limit limit);
+
+    @Query(SUMMARY + " where u.id > :lastId order by u.id")
+    List<UserSummary> findPageAfterId(@Param("lastId") Long lastId, Limit limit);
+
+    @Query(SUMMARY + " order by u.username, u.id")
+    List<UserSummary> findFirstPageOrderByUsername(Limit limit);
+
+    @Query(SUMMARY + " where (u.username, u.id) > (:username, :lastId) order by u.username, u.id")
+    List<UserSummary> findPageAfterUsername(@Param("username") String username,
+                                           @Param("lastId") Long lastId,
+                                           Limit limit);
+
+    // Cambio de contraseña sin cargar la entidad (flujo de restablecimiento)
+    @Modifying
+    @Query("update UserEntity u set u.password = :password, u.version = u.version + 1 where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    // Solo si la contraseña no ha cambiado desde que se leyó (tokens de restablecimiento firmados)
+    @Modifying
+    @Query("update UserEntity u set u.password = :password, u.version = u.version + 1 " +
+            "where u.id = :id and u.password = :currentPassword")
+    int updatePasswordIfUnchanged(@Param("id") Long id,
+                                  @Param("currentPassword") String currentPassword,
+                                  @Param("password") String password);
+
+    @Query("select u.password from UserEntity u where u.id = :id")
+    Optional<String> findPasswordById(@Param("id") Long id);
+
+    // Solo la versión (ETag), sin cargar la fila completa ni los roles
+    @Query("select u.version from UserEntity u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Recorrido completo para la exportación: cursor de solo avance que trae las filas de
+    // EXPORT_FETCH_SIZE en EXPORT_FETCH_SIZE, con entidades de solo lectura (sin snapshot).
+    // Los roles llegan en el mismo join y el orden por id mantiene juntas las filas de cada usuario.
+    // Hay que consumirlo dentro de una transacción y cerrarlo al terminar.
+    String EXPORT_FETCH_SIZE = "500";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select u from UserEntity u left join fetch u.authorities order by u.id")
+    Stream<UserEntity> streamAllForExport();
 
 }
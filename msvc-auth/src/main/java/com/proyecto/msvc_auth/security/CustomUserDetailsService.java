@@ -2,6 +2,7 @@ package com.proyecto.msvc_auth.security;
 
 import com.proyecto.msvc_auth.Entity.UserEntity;
 import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.util.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -19,10 +20,11 @@ import java.util.stream.Collectors;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserEntity user = userRepository.findByUsername(username)
+        UserEntity user = userCache.getByUsername(username, userRepository::findByUsername)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
 
         Set<GrantedAuthority> authorities = user.getAuthorities().stream()
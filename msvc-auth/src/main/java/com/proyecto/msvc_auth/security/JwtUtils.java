@@ -4,6 +4,8 @@ import com.proyecto.msvc_auth.Entity.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -12,6 +14,7 @@ import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 
 @Component
@@ -28,6 +31,25 @@ public class JwtUtils {
 
     private SecretKey secretKey;
 
+    private final Timer issueTimer;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+
+    public JwtUtils(MeterRegistry meterRegistry) {
+        this.issueTimer = Timer.builder("auth.jwt.issue")
+                .description("Tiempo de firmar un JWT")
+                .register(meterRegistry);
+        this.validTimer = verifyTimer(meterRegistry, "valid");
+        this.invalidTimer = verifyTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Tiempo de verificar la firma y las claims de un JWT")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     @PostConstruct
     public void init() {
         byte[] keyBytes = Decoders.BASE64.decode(secretBase64);
@@ -35,6 +57,10 @@ public class JwtUtils {
     }
 
     public String generateToken(String username, Long userId, Set<Role> roles) {
+        return issueTimer.record(() -> buildToken(username, userId, roles));
+    }
+
+    private String buildToken(String username, Long userId, Set<Role> roles) {
         Instant now = Instant.now();
         Date issuedAt = Date.from(now);
         Date expiration = Date.from(now.plus(expirationMinutes, ChronoUnit.MINUTES));
@@ -59,6 +85,13 @@ public class JwtUtils {
     }
 
     public boolean validateToken(String token) {
+        long start = System.nanoTime();
+        boolean valid = isValid(token);
+        (valid ? validTimer : invalidTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return valid;
+    }
+
+    private boolean isValid(String token) {
         try {
             Claims claims = Jwts.parser()
                     .verifyWith(secretKey)
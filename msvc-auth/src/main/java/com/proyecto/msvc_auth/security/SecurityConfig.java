@@ -1,5 +1,7 @@
 package com.proyecto.msvc_auth.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 
@@ -7,6 +9,7 @@ import org.springframework.context.annotation.Bean;
 
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ObservationAuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -44,8 +47,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/password-recovery").permitAll()
                         .requestMatchers("/api/auth/password-reset").permitAll()
                         .requestMatchers(HttpMethod.POST,"/api/auth/users").permitAll()
-                        .requestMatchers(HttpMethod.PATCH, "/api/auth/users/**").permitAll()
+                        // Solo el restablecimiento con token; el resto de PATCH de usuarios es de ADMIN
+                        .requestMatchers(HttpMethod.PATCH, "/api/auth/users/*/password").permitAll()
                         .requestMatchers("/api/auth/users/**").hasRole("ADMIN")
+                        .requestMatchers("/api/auth/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 );
 
@@ -56,13 +61,19 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
-        return authConfig.getAuthenticationManager();
+    public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig,
+                                                       ObservationRegistry observationRegistry) throws Exception {
+        AuthenticationManager authenticationManager = authConfig.getAuthenticationManager();
+        // Span de la autenticación (carga del usuario y BCrypt) dentro de la traza del login
+        if (authenticationManager instanceof ObservationAuthenticationManager) {
+            return authenticationManager;
+        }
+        return new ObservationAuthenticationManager(observationRegistry, authenticationManager);
     }
 
     @Bean
@@ -73,7 +84,9 @@ public class SecurityConfig {
                 "http://localhost:8083"
         ));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Cache-Control", "Content-Type", "If-Match",
+                "If-None-Match"));
+        configuration.setExposedHeaders(List.of("ETag"));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
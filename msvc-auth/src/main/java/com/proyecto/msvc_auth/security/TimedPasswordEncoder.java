@@ -0,0 +1,53 @@
+package com.proyecto.msvc_auth.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste de hashear y comprobar contraseñas (BCrypt domina la latencia del login y del alta).
+ * La comprobación se etiqueta con su resultado: un pico de "mismatch" suele ser un ataque de fuerza bruta.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer hashTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Tiempo de hashear una contraseña")
+                .register(meterRegistry);
+        this.matchTimer = verifyTimer(meterRegistry, "match");
+        this.mismatchTimer = verifyTimer(meterRegistry, "mismatch");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.password.verify")
+                .description("Tiempo de comprobar una contraseña contra su hash")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
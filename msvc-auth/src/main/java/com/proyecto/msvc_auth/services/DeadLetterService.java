@@ -0,0 +1,18 @@
+package com.proyecto.msvc_auth.services;
+
+public interface DeadLetterService {
+
+    /**
+     * Devuelve mensajes de la DLQ a su cola de origen, con el contador de reintentos a cero
+     * (los que no tienen cola de origen se mueven a la cola de aparcados y no cuentan)
+     * @param limit número máximo de mensajes a reprocesar
+     * @return número de mensajes reenviados
+     */
+    int replayDeadLetters(int limit);
+
+    /**
+     * Número de mensajes aparcados en la DLQ
+     * @return mensajes pendientes en la DLQ
+     */
+    long countDeadLetters();
+}
@@ -0,0 +1,30 @@
+package com.proyecto.msvc_auth.services;
+
+import com.proyecto.msvc_auth.Entity.UserEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Emisión y canje de los tokens de restablecimiento de contraseña.
+ * Hay dos modos (password-reset.token-mode): "database" (por defecto), con los tokens guardados en
+ * password_reset_tokens, y "signed", tokens firmados con HMAC que no necesitan tabla.
+ */
+public interface PasswordResetTokenService {
+
+    /**
+     * Genera un token para el usuario; si ya tenía uno, deja de ser válido (modo database)
+     * o seguirá siéndolo hasta que caduque o cambie la contraseña (modo signed).
+     * @param expiryDate fin de la vigencia del token
+     * @return el token que se envía al usuario
+     */
+    String issue(UserEntity user, LocalDateTime expiryDate);
+
+    /**
+     * Valida el token, lo consume y guarda la nueva contraseña. La contraseña solo se codifica
+     * si el token es válido.
+     * @throws org.springframework.security.authentication.ott.InvalidOneTimeTokenException si el token
+     *         ha caducado, es de otro usuario o ya se utilizó
+     * @throws RuntimeException si el token no es válido o el usuario no existe
+     */
+    void redeem(Long userId, String token, String newPassword);
+}
@@ -0,0 +1,22 @@
+package com.proyecto.msvc_auth.services;
+
+import java.util.OptionalLong;
+
+public interface UserCountService {
+
+    /**
+     * Cuenta los usuarios que cumplen los filtros, reutilizando el resultado durante un tiempo limitado
+     * @param firstName filtro de nombre (opcional)
+     * @param lastName filtro de apellido (opcional)
+     * @return número de usuarios, posiblemente desactualizado hasta el TTL configurado
+     */
+    long cachedCount(String firstName, String lastName);
+
+    /**
+     * Estima el número de usuarios a partir de las estadísticas del planificador de PostgreSQL
+     * @param firstName filtro de nombre (opcional)
+     * @param lastName filtro de apellido (opcional)
+     * @return estimación, o vacío si no hay estadísticas aplicables (filtros, tabla sin analizar u otra base de datos)
+     */
+    OptionalLong estimatedCount(String firstName, String lastName);
+}
@@ -0,0 +1,16 @@
+package com.proyecto.msvc_auth.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+
+    /**
+     * Escribe todos los usuarios como NDJSON (un UserResponse por línea), leyéndolos de la base de datos
+     * según se escriben: la memoria usada no depende del número de usuarios.
+     * @param output destino; si falla la escritura (p. ej. el cliente cierra la conexión) la exportación se cancela
+     * @return número de usuarios escritos
+     * @throws IOException si falla la escritura
+     */
+    long exportUsers(OutputStream output) throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.proyecto.msvc_auth.services;
+
+import com.proyecto.msvc_auth.models.UserImportFormat;
+import com.proyecto.msvc_auth.models.UserImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+
+    /**
+     * Importa usuarios leyendo el contenido por bloques, sin cargarlo entero en memoria.
+     * Cada bloque se confirma por separado: si la lectura se corta, lo ya importado se conserva.
+     * @param input contenido NDJSON o CSV (UTF-8)
+     * @param format formato del contenido
+     * @return resumen con las filas importadas y las rechazadas
+     * @throws IllegalArgumentException si el CSV no tiene una cabecera válida
+     * @throws IOException si falla la lectura del contenido
+     */
+    UserImportReport importUsers(InputStream input, UserImportFormat format) throws IOException;
+}
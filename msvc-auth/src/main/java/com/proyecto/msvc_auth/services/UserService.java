@@ -8,6 +8,11 @@ import com.proyecto.msvc_auth.DTO.UserRegistrationRequest;
 import com.proyecto.msvc_auth.DTO.UserUpdateRequest;
 import com.proyecto.msvc_auth.Entity.Role;
 import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.models.CountMode;
+import com.proyecto.msvc_auth.models.CursorPage;
+import com.proyecto.msvc_auth.models.ListingPage;
+import com.proyecto.msvc_auth.models.UserCursor;
+import com.proyecto.msvc_auth.models.UserSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -39,6 +44,13 @@ public interface UserService {
      */
     Optional<UserEntity> getUserById(Long id);
 
+    /**
+     * Obtiene la versión actual de un usuario (para ETags) sin cargarlo si no está en caché
+     * @param id identificador del usuario
+     * @return versión del usuario o empty si no existe
+     */
+    Optional<Long> getUserVersion(Long id);
+
     /**
      * Actualiza los datos de un usuario existente
      * @param id identificador del usuario a actualizar
@@ -49,10 +61,23 @@ public interface UserService {
      */
     UserEntity updateUser(Long id, UserUpdateRequest updateRequest);
 
+    /**
+     * Actualiza los campos informados de un usuario si sigue en la versión esperada (bloqueo optimista)
+     * @param id identificador del usuario a actualizar
+     * @param updateRequest datos a actualizar; los campos null no se modifican
+     * @param expectedVersion versión que el cliente leyó, o null para no comprobarla
+     * @return usuario actualizado
+     * @throws com.proyecto.msvc_auth.exceptions.UserNotFoundException si no se encuentra el usuario
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException si el usuario cambió desde esa versión
+     * @throws com.proyecto.msvc_auth.exceptions.UserAlreadyExistException si el email ya es de otro usuario
+     */
+    UserEntity updateUser(Long id, UserUpdateRequest updateRequest, Long expectedVersion);
+
     /**
      * Elimina un usuario del sistema
      *
      * @param id identificador del usuario a eliminar
+     * @throws com.proyecto.msvc_auth.exceptions.UserNotFoundException si no se encuentra el usuario
      */
     void deleteUser(Long id);
 
@@ -115,7 +140,7 @@ public interface UserService {
      * @param pageable configuración de paginación
      * @return página de usuarios que coinciden con la búsqueda
      */
-    Page<UserEntity> searchUsers(String searchTerm, Pageable pageable);
+    Page<UserSummary> searchUsers(String searchTerm, Pageable pageable);
     Optional<UserEntity>getUserByUsername(String username);
     UserEntity updateUserRoles(Long id, Set<Role> roles);
 
@@ -126,5 +151,25 @@ public interface UserService {
      * @param lastName filtro de apellido (opcional)
      * @return página de usuarios filtrados
      */
-    Page<UserEntity> getAllUsersFiltered(Pageable pageable, String firstName, String lastName);
+    Page<UserSummary> getAllUsersFiltered(Pageable pageable, String firstName, String lastName);
+
+    /**
+     * Obtiene una página de usuarios filtrada eligiendo cómo se calcula el total
+     * @param pageable configuración de paginación
+     * @param firstName filtro de nombre (opcional)
+     * @param lastName filtro de apellido (opcional)
+     * @param countMode exacto, sin total, estimado o cacheado
+     * @return página de usuarios indicando si el total es exacto
+     */
+    ListingPage<UserSummary> getUsersListing(Pageable pageable, String firstName, String lastName, CountMode countMode);
+
+    /**
+     * Obtiene una página de usuarios a partir de un cursor (paginación keyset)
+     * @param sort columna de ordenación ("id" o "username")
+     * @param after posición de la última fila de la página anterior, o null para la primera página
+     * @param size número máximo de usuarios a devolver
+     * @return usuarios de la página y cursor de la siguiente
+     * @throws IllegalArgumentException si el cursor no corresponde a la ordenación pedida
+     */
+    CursorPage<UserSummary> getUsersByCursor(String sort, UserCursor after, int size);
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.proyecto.msvc_auth.services.impl;
+
+import com.proyecto.msvc_auth.models.CacheInvalidation;
+import com.proyecto.msvc_auth.util.CacheInvalidationPublisher;
+import com.proyecto.msvc_auth.util.UserCache;
+import com.proyecto.msvc_auth.util.UserListingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aplica en esta réplica las invalidaciones difundidas por las demás.
+ * Mientras no hay conexión con el broker los avisos se pierden (la cola es auto-delete), así que
+ * al reconectar se vacían las cachés locales por completo.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationListener implements ConnectionListener {
+
+    private final UserCache userCache;
+    private final UserListingCache userListingCache;
+    private final ConnectionFactory connectionFactory;
+
+    private final AtomicBoolean connectedBefore = new AtomicBoolean(false);
+
+    @PostConstruct
+    void registerConnectionListener() {
+        connectionFactory.addConnectionListener(this);
+    }
+
+    @RabbitListener(queues = "#{cacheInvalidationQueue.name}")
+    public void handleInvalidation(CacheInvalidation invalidation) {
+        if (invalidation == null || CacheInvalidationPublisher.INSTANCE_ID.equals(invalidation.getOrigin())) {
+            return;
+        }
+        if (CacheInvalidation.ALL.equals(invalidation.getEntityType())) {
+            userCache.evictAllLocal();
+            userListingCache.invalidateLocal();
+        } else if (CacheInvalidation.USER_LISTINGS.equals(invalidation.getEntityType())) {
+            userListingCache.invalidateLocal();
+        } else if (CacheInvalidation.USER.equals(invalidation.getEntityType())) {
+            try {
+                userCache.evictLocal(Long.valueOf(invalidation.getKey()));
+            } catch (NumberFormatException e) {
+                log.warn("Invalidación de usuario con clave no válida: {}", invalidation.getKey());
+            }
+        }
+    }
+
+    @Override
+    public void onCreate(Connection connection) {
+        if (connectedBefore.getAndSet(true)) {
+            log.info("Reconectado con RabbitMQ: se vacían las cachés locales");
+            userCache.evictAllLocal();
+            userListingCache.invalidateLocal();
+        }
+    }
+}
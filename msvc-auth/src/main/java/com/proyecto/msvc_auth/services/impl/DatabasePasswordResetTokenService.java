@@ -0,0 +1,57 @@
+package com.proyecto.msvc_auth.services.impl;
+
+import com.proyecto.msvc_auth.Entity.PasswordResetToken;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.repository.PasswordTokenRepository;
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.services.PasswordResetTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.ott.InvalidOneTimeTokenException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Tokens aleatorios guardados en password_reset_tokens, uno por usuario.
+ */
+@Service
+@ConditionalOnProperty(name = "password-reset.token-mode", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DatabasePasswordResetTokenService implements PasswordResetTokenService {
+
+    private final PasswordTokenRepository tokenRepository;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @Override
+    @Transactional
+    public String issue(UserEntity user, LocalDateTime expiryDate) {
+        // Una sola sentencia: crea el token o reemplaza el que ya tuviera el usuario
+        String token = UUID.randomUUID().toString();
+        tokenRepository.upsertForUser(user.getId(), token, expiryDate);
+        return token;
+    }
+
+    @Override
+    @Transactional
+    public void redeem(Long userId, String token, String newPassword) {
+        // Camino normal: borrar el token válido y actualizar el hash, dos sentencias sin cargar entidades.
+        // El token solo se lee si no se pudo consumir, para explicar el motivo.
+        if (tokenRepository.consume(token, userId, LocalDateTime.now()) == 0) {
+            PasswordResetToken resetToken = tokenRepository.findByToken(token)
+                    .orElseThrow(() -> new RuntimeException("Token inválido"));
+            if (resetToken.isExpired()) {
+                throw new InvalidOneTimeTokenException("El token ha expirado");
+            }
+            throw new InvalidOneTimeTokenException("El token no corresponde al usuario");
+        }
+
+        if (userRepository.updatePassword(userId, passwordEncoder.encode(newPassword)) == 0) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+    }
+}
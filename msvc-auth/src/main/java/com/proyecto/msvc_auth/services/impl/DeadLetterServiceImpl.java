@@ -0,0 +1,66 @@
+package com.proyecto.msvc_auth.services.impl;
+
+import com.proyecto.msvc_auth.config.RabbitConfig;
+import com.proyecto.msvc_auth.services.DeadLetterService;
+import com.proyecto.msvc_auth.util.UserEventRetryRecoverer;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterServiceImpl implements DeadLetterService {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Override
+    public int replayDeadLetters(int limit) {
+        // Todo el lote en un mismo canal: cada mensaje se confirma solo después de republicarlo
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            int count = 0;
+            while (count < limit) {
+                GetResponse response = channel.basicGet(RabbitConfig.USER_EVENTS_DLQ, false);
+                if (response == null) {
+                    break;
+                }
+                long deliveryTag = response.getEnvelope().getDeliveryTag();
+                Map<String, Object> headers = response.getProps().getHeaders() != null
+                        ? new HashMap<>(response.getProps().getHeaders())
+                        : new HashMap<>();
+                Object originalQueue = headers.get(UserEventRetryRecoverer.ORIGINAL_QUEUE_HEADER);
+                if (originalQueue == null) {
+                    // Sin cola de origen no se puede reenviar. Devolverlo a la DLQ lo dejaría en
+                    // cabeza y bloquearía todos los replays siguientes: se aparta y se sigue
+                    channel.basicPublish("", RabbitConfig.USER_EVENTS_PARKING_QUEUE, response.getProps(),
+                            response.getBody());
+                    channel.basicAck(deliveryTag, false);
+                    log.warn("Mensaje de la DLQ sin cola de origen, movido a {}", RabbitConfig.USER_EVENTS_PARKING_QUEUE);
+                    continue;
+                }
+                headers.remove(UserEventRetryRecoverer.RETRY_ATTEMPT_HEADER);
+                headers.remove(UserEventRetryRecoverer.LAST_ERROR_HEADER);
+                AMQP.BasicProperties properties = response.getProps().builder().headers(headers).build();
+                channel.basicPublish("", originalQueue.toString(), properties, response.getBody());
+                channel.basicAck(deliveryTag, false);
+                count++;
+            }
+            return count;
+        });
+        int total = replayed != null ? replayed : 0;
+        log.info("Mensajes reprocesados desde la DLQ: {}", total);
+        return total;
+    }
+
+    @Override
+    public long countDeadLetters() {
+        Long count = rabbitTemplate.execute(channel -> channel.messageCount(RabbitConfig.USER_EVENTS_DLQ));
+        return count != null ? count : 0;
+    }
+}
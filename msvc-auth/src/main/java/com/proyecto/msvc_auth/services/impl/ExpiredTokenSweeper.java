@@ -0,0 +1,67 @@
+package com.proyecto.msvc_auth.services.impl;
+
+import com.proyecto.msvc_auth.repository.PasswordTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Elimina periódicamente los tokens de recuperación de contraseña caducados.
+ * Borra por lotes de tamaño fijo, cada uno en su propia transacción, hasta que no quedan caducados
+ * o se agota el tiempo máximo de la pasada; el resto queda para la siguiente.
+ */
+@Component
+@ConditionalOnProperty(name = "password-reset.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ExpiredTokenSweeper {
+
+    private final PasswordTokenRepository tokenRepository;
+    private final Counter sweptTokens;
+    private final Timer sweepTimer;
+
+    @Value("${password-reset.sweeper.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${password-reset.sweeper.max-duration:1m}")
+    private Duration maxDuration;
+
+    public ExpiredTokenSweeper(PasswordTokenRepository tokenRepository, MeterRegistry meterRegistry) {
+        this.tokenRepository = tokenRepository;
+        this.sweptTokens = Counter.builder("password.reset.tokens.swept")
+                .description("Tokens de recuperación caducados eliminados")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("password.reset.tokens.sweep")
+                .description("Duración de cada pasada de limpieza de tokens caducados")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${password-reset.sweeper.interval:15m}",
+            initialDelayString = "${password-reset.sweeper.initial-delay:1m}")
+    public void sweep() {
+        long swept = sweepTimer.record(this::sweepExpired);
+        if (swept > 0) {
+            log.info("Tokens de recuperación caducados eliminados: {}", swept);
+        }
+    }
+
+    long sweepExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = tokenRepository.deleteExpiredBatch(now, batchSize);
+            total += deleted;
+            sweptTokens.increment(deleted);
+        } while (deleted == batchSize && System.nanoTime() - deadline < 0);
+        return total;
+    }
+}
@@ -1,5 +1,6 @@
 package com.proyecto.msvc_auth.services.impl;
 
+import com.proyecto.msvc_auth.config.RabbitConfig;
 import com.proyecto.msvc_auth.models.UserEvent;
 import com.proyecto.msvc_auth.services.NotificationService;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -14,7 +15,7 @@ public class NotificationServiceImpl implements NotificationService {
         // Lógica de negocio para manejar la notificación
     }
 
-    @RabbitListener(queues = "notifications.queue")
+    @RabbitListener(queues = RabbitConfig.NOTIFICATIONS_QUEUE)
     public void handleUserEvent(UserEvent event) {
         // Solo procesar eventos de tipo user.*
         if (event.getEventType() != null && event.getEventType().startsWith("user.")) {
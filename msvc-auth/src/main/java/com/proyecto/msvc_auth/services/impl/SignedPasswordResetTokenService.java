@@ -0,0 +1,117 @@
+package com.proyecto.msvc_auth.services.impl;
+
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.services.PasswordResetTokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.ott.InvalidOneTimeTokenException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Tokens sin estado: un JWS firmado con HMAC que lleva el id del usuario, la caducidad y una huella
+ * del hash de contraseña actual. Emitirlos no escribe nada y canjearlos solo lee la contraseña del usuario.
+ * En cuanto la contraseña cambia la huella deja de coincidir, así que cada token sirve una sola vez;
+ * el update condicionado al hash anterior cubre dos canjes simultáneos del mismo token.
+ * <p>
+ * A diferencia del modo database, pedir un token nuevo no invalida los anteriores aún vigentes.
+ */
+@Service
+@ConditionalOnProperty(name = "password-reset.token-mode", havingValue = "signed")
+public class SignedPasswordResetTokenService implements PasswordResetTokenService {
+
+    static final String AUDIENCE = "password-reset";
+    static final String FINGERPRINT_CLAIM = "pwd";
+    private static final int FINGERPRINT_BYTES = 16;
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final SecretKey signingKey;
+
+    public SignedPasswordResetTokenService(UserRepository userRepository,
+                                           PasswordEncoder passwordEncoder,
+                                           @Value("${password-reset.signing-secret}") String signingSecretBase64) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(signingSecretBase64));
+    }
+
+    @Override
+    public String issue(UserEntity user, LocalDateTime expiryDate) {
+        return Jwts.builder()
+                .subject(user.getId().toString())
+                .audience().add(AUDIENCE).and()
+                .expiration(Date.from(expiryDate.atZone(ZoneId.systemDefault()).toInstant()))
+                .claim(FINGERPRINT_CLAIM, fingerprint(user.getPassword()))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    @Override
+    @Transactional
+    public void redeem(Long userId, String token, String newPassword) {
+        Claims claims = parse(token);
+        if (!userId.toString().equals(claims.getSubject())) {
+            throw new InvalidOneTimeTokenException("El token no corresponde al usuario");
+        }
+
+        String currentPassword = userRepository.findPasswordById(userId)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        String expected = fingerprint(currentPassword);
+        String actual = claims.get(FINGERPRINT_CLAIM, String.class);
+        if (actual == null || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                actual.getBytes(StandardCharsets.US_ASCII))) {
+            throw new InvalidOneTimeTokenException("El token ya fue utilizado");
+        }
+
+        if (userRepository.updatePasswordIfUnchanged(userId, currentPassword, passwordEncoder.encode(newPassword)) == 0) {
+            throw new InvalidOneTimeTokenException("El token ya fue utilizado");
+        }
+    }
+
+    private Claims parse(String token) {
+        try {
+            return Jwts.parser()
+                    .verifyWith(signingKey)
+                    .requireAudience(AUDIENCE)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        } catch (ExpiredJwtException e) {
+            throw new InvalidOneTimeTokenException("El token ha expirado");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new RuntimeException("Token inválido");
+        }
+    }
+
+    // HMAC del hash de contraseña con la misma clave: el token no revela nada del hash
+    private String fingerprint(String passwordHash) {
+        try {
+            Mac mac = Mac.getInstance(signingKey.getAlgorithm());
+            mac.init(signingKey);
+            byte[] digest = mac.doFinal(passwordHash.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, FINGERPRINT_BYTES));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la contraseña", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.proyecto.msvc_auth.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.services.UserCountService;
+import com.proyecto.msvc_auth.util.CacheMetrics;
+import com.proyecto.msvc_auth.util.LikePatterns;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.OptionalLong;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserCountServiceImpl implements UserCountService {
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${users.count.cache-ttl:30s}")
+    private Duration cacheTtl;
+
+    @Value("${users.count.cache-max-entries:1000}")
+    private long cacheMaxEntries;
+
+    private Cache<CountKey, Long> counts;
+
+    @PostConstruct
+    void initCache() {
+        counts = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CacheMetrics.monitor(meterRegistry, counts, "users.counts");
+    }
+
+    @Override
+    public long cachedCount(String firstName, String lastName) {
+        return counts.get(new CountKey(normalize(firstName), normalize(lastName)), this::count);
+    }
+
+    @Override
+    public OptionalLong estimatedCount(String firstName, String lastName) {
+        // Las estadísticas solo describen la tabla completa; con filtros no hay estimación fiable
+        if (normalize(firstName) != null || normalize(lastName) != null) {
+            return OptionalLong.empty();
+        }
+        try {
+            Long estimate = userRepository.estimateRowCount();
+            return estimate == null || estimate < 0 ? OptionalLong.empty() : OptionalLong.of(estimate);
+        } catch (DataAccessException e) {
+            log.debug("No se pudo estimar el número de usuarios: {}", e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+
+    private long count(CountKey key) {
+        if (key.firstName() == null && key.lastName() == null) {
+            return userRepository.count();
+        }
+        if (key.lastName() == null) {
+            return userRepository.countByFirstNameMatching(LikePatterns.contains(key.firstName()));
+        }
+        if (key.firstName() == null) {
+            return userRepository.countByLastNameMatching(LikePatterns.contains(key.lastName()));
+        }
+        return userRepository.countByFirstNameAndLastNameMatching(
+                LikePatterns.contains(key.firstName()), LikePatterns.contains(key.lastName()));
+    }
+
+    // Los filtros son ilike: "Ana" y "ana" comparten entrada
+    private static String normalize(String filter) {
+        return filter == null || filter.isBlank() ? null : filter.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record CountKey(String firstName, String lastName) {
+    }
+}
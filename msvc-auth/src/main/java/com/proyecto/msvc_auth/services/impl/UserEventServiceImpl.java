@@ -1,10 +1,14 @@
 package com.proyecto.msvc_auth.services.impl;
 
+import com.proyecto.msvc_auth.config.UserEventPartitioningConfig;
 import com.proyecto.msvc_auth.models.UserEvent;
 import com.proyecto.msvc_auth.services.UserEventService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -14,9 +18,18 @@ public class UserEventServiceImpl implements UserEventService {
 
     public static final String USER_EVENTS_EXCHANGE = "microservices.events";
     private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rabbitmq.events.partitioning.enabled:false}")
+    private boolean partitioningEnabled;
+
+    @Value("${rabbitmq.events.partitioning.partitions:8}")
+    private int partitions;
 
     @Override
     public void publishEvent(UserEvent event) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             String routingKey = event.getEventType();
             if (!routingKey.startsWith("user.")) {
@@ -27,6 +40,15 @@ public class UserEventServiceImpl implements UserEventService {
                     routingKey,
                     event
             );
+            if (partitioningEnabled) {
+                // Copia a la cola de su partición: msvc-notifications la consume en orden por usuario
+                rabbitTemplate.convertAndSend(
+                        UserEventPartitioningConfig.USER_EVENTS_PARTITIONED_EXCHANGE,
+                        String.valueOf(partitionFor(event.getUserId())),
+                        event
+                );
+            }
+            outcome = "success";
             log.info("Evento publicado: type={}, userId={}, username={}",
                     routingKey,
                     event.getUserId(),
@@ -36,6 +58,24 @@ public class UserEventServiceImpl implements UserEventService {
                     event.getEventType(),
                     event.getUserId(),
                     e.getMessage());
+        } finally {
+            // El tipo de evento es un conjunto cerrado (register, login, user-update...): cardinalidad baja
+            sample.stop(Timer.builder("user.events.publish")
+                    .description("Tiempo de publicar un evento de usuario en RabbitMQ")
+                    .tag("type", String.valueOf(event.getEventType()))
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Partición asignada a un usuario. Los eventos sin userId van a la partición 0.
+     * Cambiar el número de particiones reasigna usuarios, por lo que debe hacerse con las colas vacías.
+     */
+    public int partitionFor(Long userId) {
+        if (userId == null || partitions <= 1) {
+            return 0;
         }
+        return Math.floorMod(Long.hashCode(userId), partitions);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.proyecto.msvc_auth.services.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.proyecto.msvc_auth.DTO.UserResponse;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.services.UserExportService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream output) throws IOException {
+        long exported = 0;
+        // Se vuelca al flujo cada FLUSH_EVERY usuarios, no tras cada uno
+        ObjectWriter writer = objectMapper.writerFor(UserResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // El generador no cierra el flujo de salida: de eso se encarga quien lo abrió
+        try (Stream<UserEntity> users = userRepository.streamAllForExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(output)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+            Iterator<UserEntity> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                UserEntity user = iterator.next();
+                writer.writeValue(generator, UserResponse.from(user));
+                generator.writeRaw('\n');
+                // Sin desvincular, el contexto de persistencia acumularía todas las entidades leídas
+                entityManager.detach(user);
+                if (++exported % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            log.info("Exportación de usuarios cancelada tras {} usuarios: {}", exported, e.getMessage());
+            throw e;
+        }
+        log.info("Exportación de usuarios terminada: {} usuarios", exported);
+        return exported;
+    }
+}
@@ -0,0 +1,427 @@
+package com.proyecto.msvc_auth.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto.msvc_auth.DTO.UserImportRow;
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.models.UserEvent;
+import com.proyecto.msvc_auth.models.UserImportFormat;
+import com.proyecto.msvc_auth.models.UserImportReport;
+import com.proyecto.msvc_auth.services.UserEventService;
+import com.proyecto.msvc_auth.services.UserImportService;
+import com.proyecto.msvc_auth.util.UserListingCache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
+
+/**
+ * Importación masiva de usuarios.
+ * <p>
+ * El contenido se lee línea a línea y se procesa por bloques: se validan las filas, se descartan
+ * los duplicados (dentro del fichero y contra la base de datos, con una sola consulta por bloque),
+ * se calculan los hash bcrypt en paralelo y se insertan con sentencias JDBC por lotes en una
+ * transacción por bloque. En memoria solo hay un bloque y la lista de errores (acotada).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    public static final String IMPORT_EVENT_TYPE = "users-imported";
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+    private static final List<String> CSV_COLUMNS =
+            List.of("username", "email", "password", "passwordHash", "firstName", "lastName", "mobileNumber");
+
+    private static final String INSERT_USER = "insert into users (id, username, email, mobile_number, password, first_name, last_name, version) " +
+            "values (:id, :username, :email, :mobileNumber, :password, :firstName, :lastName, 0)";
+    private static final String INSERT_ROLE = "insert into user_roles (user_id, authorities) values (:userId, :role)";
+    private static final String FIND_EXISTING = "select username, email, mobile_number from users " +
+            "where username in (:usernames) or email in (:emails) or mobile_number in (:mobileNumbers)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final UserEventService userEventService;
+    private final UserListingCache userListingCache;
+    private final ExecutorService passwordHashingExecutor;
+
+    @Value("${users.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${users.import.max-errors:1000}")
+    private int maxErrors;
+
+    private String nextUserIdSql;
+
+    @Override
+    public UserImportReport importUsers(InputStream input, UserImportFormat format) throws IOException {
+        long start = System.nanoTime();
+        Progress progress = new Progress(UUID.randomUUID().toString(), maxErrors);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        Map<String, Integer> csvColumns = format == UserImportFormat.CSV ? readCsvHeader(reader, progress) : null;
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            long lineNumber = ++progress.lines;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.total++;
+            UserImportRow data;
+            try {
+                data = csvColumns != null ? parseCsvRow(line, csvColumns) : objectMapper.readValue(line, UserImportRow.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                progress.reject(lineNumber, null, "Fila mal formada");
+                continue;
+            }
+            String error = validate(data);
+            if (error != null) {
+                progress.reject(lineNumber, data.getUsername(), error);
+                continue;
+            }
+            chunk.add(new Row(lineNumber, data));
+            if (chunk.size() >= chunkSize) {
+                processChunk(chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, progress);
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        UserImportReport report = new UserImportReport(progress.importId, progress.total, progress.imported,
+                progress.failed, durationMs, List.copyOf(progress.errors), progress.failed > progress.errors.size());
+        log.info("Importación {} terminada: total={}, importados={}, rechazados={}, duracionMs={}",
+                report.importId(), report.total(), report.imported(), report.failed(), durationMs);
+        if (report.imported() > 0) {
+            userListingCache.invalidate();
+        }
+        publishImportEvent(report);
+        return report;
+    }
+
+    private void processChunk(List<Row> chunk, Progress progress) {
+        List<Row> candidates = rejectDuplicates(chunk, progress);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        List<String> hashes = hashPasswords(candidates);
+        List<Long> ids = allocateUserIds(candidates.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(candidates, ids, hashes));
+            progress.imported += candidates.size();
+        } catch (DataIntegrityViolationException e) {
+            // Otro alta ocupó algún dato entre la comprobación y el insert: se reintenta fila a fila
+            log.debug("Conflicto al insertar el bloque, se reintenta fila a fila: {}", e.getMessage());
+            for (int i = 0; i < candidates.size(); i++) {
+                Row row = candidates.get(i);
+                List<Long> id = List.of(ids.get(i));
+                List<String> hash = List.of(hashes.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(row), id, hash));
+                    progress.imported++;
+                } catch (DataIntegrityViolationException rowError) {
+                    progress.reject(row.line(), row.data().getUsername(), "El usuario ya existe");
+                }
+            }
+        }
+    }
+
+    // Descarta las filas que repiten username, email o teléfono dentro del bloque o respecto a la base de datos
+    // (los bloques anteriores ya están confirmados, así que los repetidos entre bloques salen en la consulta)
+    private List<Row> rejectDuplicates(List<Row> chunk, Progress progress) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> mobileNumbers = new HashSet<>();
+        List<Row> unique = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            UserImportRow data = row.data();
+            if (!usernames.add(data.getUsername())) {
+                progress.reject(row.line(), data.getUsername(), "Nombre de usuario repetido en el fichero");
+            } else if (!emails.add(data.getEmail())) {
+                progress.reject(row.line(), data.getUsername(), "Correo electrónico repetido en el fichero");
+            } else if (!mobileNumbers.add(data.getMobileNumber())) {
+                progress.reject(row.line(), data.getUsername(), "Número de teléfono repetido en el fichero");
+            } else {
+                unique.add(row);
+            }
+        }
+        if (unique.isEmpty()) {
+            return unique;
+        }
+
+        Set<String> existingUsernames = new HashSet<>();
+        Set<String> existingEmails = new HashSet<>();
+        Set<String> existingMobileNumbers = new HashSet<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("usernames", usernames)
+                .addValue("emails", emails)
+                .addValue("mobileNumbers", mobileNumbers);
+        jdbcTemplate.query(FIND_EXISTING, params, rs -> {
+            existingUsernames.add(rs.getString("username"));
+            existingEmails.add(rs.getString("email"));
+            existingMobileNumbers.add(rs.getString("mobile_number"));
+        });
+
+        List<Row> candidates = new ArrayList<>(unique.size());
+        for (Row row : unique) {
+            UserImportRow data = row.data();
+            if (existingUsernames.contains(data.getUsername())) {
+                progress.reject(row.line(), data.getUsername(), "El nombre de usuario ya está en uso");
+            } else if (existingEmails.contains(data.getEmail())) {
+                progress.reject(row.line(), data.getUsername(), "El email ya está registrado");
+            } else if (existingMobileNumbers.contains(data.getMobileNumber())) {
+                progress.reject(row.line(), data.getUsername(), "El número de teléfono ya está registrado");
+            } else {
+                candidates.add(row);
+            }
+        }
+        return candidates;
+    }
+
+    private List<String> hashPasswords(List<Row> rows) {
+        List<CompletableFuture<String>> futures = rows.stream()
+                .map(row -> row.data().getPasswordHash() != null
+                        ? CompletableFuture.completedFuture(row.data().getPasswordHash())
+                        : CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.data().getPassword()),
+                                passwordHashingExecutor))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    // Reserva ids con la misma semántica que el optimizador pooled de Hibernate: cada nextval es el
+    // extremo superior de un bloque de ID_ALLOCATION_SIZE ids que nadie más va a usar
+    private List<Long> allocateUserIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            Long high = jdbcTemplate.getJdbcTemplate().queryForObject(nextUserIdSql(), Long.class);
+            for (long id = Math.max(1, high - UserEntity.ID_ALLOCATION_SIZE + 1); id <= high && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private String nextUserIdSql() {
+        if (nextUserIdSql == null) {
+            Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+            nextUserIdSql = dialect.getSequenceSupport().getSequenceNextValString(UserEntity.ID_SEQUENCE);
+        }
+        return nextUserIdSql;
+    }
+
+    private void insert(List<Row> rows, List<Long> ids, List<String> hashes) {
+        SqlParameterSource[] users = new SqlParameterSource[rows.size()];
+        SqlParameterSource[] roles = new SqlParameterSource[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            UserImportRow data = rows.get(i).data();
+            users[i] = new MapSqlParameterSource()
+                    .addValue("id", ids.get(i))
+                    .addValue("username", data.getUsername())
+                    .addValue("email", data.getEmail())
+                    .addValue("mobileNumber", data.getMobileNumber())
+                    .addValue("password", hashes.get(i))
+                    .addValue("firstName", data.getFirstName())
+                    .addValue("lastName", data.getLastName());
+            roles[i] = new MapSqlParameterSource()
+                    .addValue("userId", ids.get(i))
+                    .addValue("role", Role.USER.name());
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, users);
+        jdbcTemplate.batchUpdate(INSERT_ROLE, roles);
+    }
+
+    // Mismas reglas que UserRegistrationRequest, salvo que la contraseña puede llegar ya cifrada
+    private static String validate(UserImportRow data) {
+        trim(data);
+        if (isBlank(data.getUsername()) || data.getUsername().length() < 3) {
+            return "El nombre de usuario debe tener al menos 3 caracteres";
+        }
+        if (isBlank(data.getEmail()) || !EMAIL.matcher(data.getEmail()).matches()) {
+            return "El correo electrónico debe ser válido";
+        }
+        if (data.getPasswordHash() != null) {
+            if (!BCRYPT_HASH.matcher(data.getPasswordHash()).matches()) {
+                return "El hash de la contraseña no es un hash bcrypt válido";
+            }
+        } else if (data.getPassword() == null || data.getPassword().length() < 8) {
+            return "La contraseña debe tener al menos 8 caracteres";
+        }
+        if (isBlank(data.getFirstName()) || isBlank(data.getLastName()) || isBlank(data.getMobileNumber())) {
+            return "Nombre, apellido y teléfono son obligatorios";
+        }
+        return null;
+    }
+
+    private static void trim(UserImportRow data) {
+        data.setUsername(trimToNull(data.getUsername()));
+        data.setEmail(trimToNull(data.getEmail()));
+        data.setPasswordHash(trimToNull(data.getPasswordHash()));
+        data.setFirstName(trimToNull(data.getFirstName()));
+        data.setLastName(trimToNull(data.getLastName()));
+        data.setMobileNumber(trimToNull(data.getMobileNumber()));
+        if (data.getPassword() != null && data.getPassword().isEmpty()) {
+            data.setPassword(null);
+        }
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private Map<String, Integer> readCsvHeader(BufferedReader reader, Progress progress) throws IOException {
+        String header;
+        do {
+            header = reader.readLine();
+            progress.lines++;
+        } while (header != null && header.isBlank());
+        if (header == null) {
+            return Map.of();
+        }
+        Map<String, String> known = new HashMap<>();
+        CSV_COLUMNS.forEach(column -> known.put(column.toLowerCase(Locale.ROOT), column));
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            String column = known.get(names.get(i).trim().toLowerCase(Locale.ROOT));
+            if (column != null) {
+                columns.put(column, i);
+            }
+        }
+        if (!columns.containsKey("username") || !columns.containsKey("email")
+                || (!columns.containsKey("password") && !columns.containsKey("passwordHash"))) {
+            throw new IllegalArgumentException("La cabecera CSV debe incluir username, email y password o passwordHash");
+        }
+        return columns;
+    }
+
+    private static UserImportRow parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        UserImportRow row = new UserImportRow();
+        row.setUsername(column(values, columns, "username"));
+        row.setEmail(column(values, columns, "email"));
+        row.setPassword(column(values, columns, "password"));
+        row.setPasswordHash(column(values, columns, "passwordHash"));
+        row.setFirstName(column(values, columns, "firstName"));
+        row.setLastName(column(values, columns, "lastName"));
+        row.setMobileNumber(column(values, columns, "mobileNumber"));
+        return row;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= values.size() ? null : values.get(index);
+    }
+
+    // CSV de una línea por registro: separador coma, campos entre comillas con "" como comilla escapada
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    // Un único evento con el resumen en lugar de uno por usuario importado
+    private void publishImportEvent(UserImportReport report) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("importId", report.importId());
+        data.put("total", report.total());
+        data.put("imported", report.imported());
+        data.put("failed", report.failed());
+        data.put("durationMs", report.durationMs());
+
+        UserEvent event = new UserEvent();
+        event.setEventType(IMPORT_EVENT_TYPE);
+        event.setTimestamp(LocalDateTime.now());
+        event.setAdditionalData(data);
+        userEventService.publishEvent(event);
+    }
+
+    private record Row(long line, UserImportRow data) {
+    }
+
+    private static final class Progress {
+        private final String importId;
+        private final int maxErrors;
+        private final List<UserImportReport.RowError> errors = new ArrayList<>();
+        private long lines;
+        private long total;
+        private long imported;
+        private long failed;
+
+        private Progress(String importId, int maxErrors) {
+            this.importId = importId;
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(long line, String username, String error) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportReport.RowError(line, username, error));
+            }
+        }
+    }
+}
@@ -3,45 +3,83 @@ package com.proyecto.msvc_auth.services.impl;
 import com.proyecto.msvc_auth.DTO.AuthResponse;
 import com.proyecto.msvc_auth.DTO.LoginRequest;
 import com.proyecto.msvc_auth.DTO.UserRegistrationRequest;
+import com.proyecto.msvc_auth.DTO.UserResponse;
 import com.proyecto.msvc_auth.DTO.UserUpdateRequest;
-import com.proyecto.msvc_auth.Entity.PasswordResetToken;
 import com.proyecto.msvc_auth.Entity.Role;
 import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.models.CountMode;
+import com.proyecto.msvc_auth.models.CursorPage;
+import com.proyecto.msvc_auth.models.ListingPage;
+import com.proyecto.msvc_auth.models.UserCursor;
 import com.proyecto.msvc_auth.models.UserEvent;
+import com.proyecto.msvc_auth.models.UserRoleRow;
+import com.proyecto.msvc_auth.models.UserSummary;
 import com.proyecto.msvc_auth.exceptions.InvalidCredentialsException;
 import com.proyecto.msvc_auth.exceptions.UserAlreadyExistException;
+import com.proyecto.msvc_auth.exceptions.UserNotFoundException;
 import com.proyecto.msvc_auth.repository.PasswordTokenRepository;
 import com.proyecto.msvc_auth.repository.UserRepository;
 import com.proyecto.msvc_auth.security.JwtUtils;
+import com.proyecto.msvc_auth.services.PasswordResetTokenService;
+import com.proyecto.msvc_auth.services.UserCountService;
 import com.proyecto.msvc_auth.services.UserEventService;
 import com.proyecto.msvc_auth.services.UserService;
+import com.proyecto.msvc_auth.util.LikePatterns;
+import com.proyecto.msvc_auth.util.UserCache;
+import com.proyecto.msvc_auth.util.UserListingCache;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.authentication.ott.InvalidOneTimeTokenException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Observed(name = "user.service")
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordTokenRepository tokenRepository;
+    private final PasswordResetTokenService passwordResetTokenService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final UserEventService userEventService;
+    private final UserCountService userCountService;
+    private final UserCache userCache;
+    private final UserListingCache userListingCache;
     private final JwtUtils jwtUtils;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final Map<String, String> UNIQUE_CONSTRAINT_COLUMNS = Map.of(
+            "uk_users_username", "username",
+            "uk_users_email", "email",
+            "uk_users_mobile_number", "mobile_number");
+
+    // PostgreSQL: "Key (email)=(...) already exists"; H2: "... ON PUBLIC.USERS(EMAIL NULLS FIRST) ..."
+    private static final Pattern UNIQUE_COLUMN_IN_MESSAGE =
+            Pattern.compile("\\(\\s*\"?(username|email|mobile_number)\\b", Pattern.CASE_INSENSITIVE);
 
     @Value("${jwt.expiration-minutes:60}")
     private Integer jwtExpirationMinutes;
@@ -66,23 +104,19 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserEntity registerUser(UserRegistrationRequest registrationRequest) {
-        if (existsByUsername(registrationRequest.getUsername())) {
-            throw new UserAlreadyExistException("El nombre de usuario ya está en uso");
-        }
-        if (existsByEmail(registrationRequest.getEmail())) {
-            throw new UserAlreadyExistException("El correo electrónico ya está registrado");
+        // Sin comprobaciones previas de existencia: se intenta el insert y las restricciones únicas
+        // detectan los duplicados, también los de dos altas simultáneas con los mismos datos
+        UserEntity user;
+        try {
+            user = userRepository.saveAndFlush(mapUserEntity(registrationRequest));
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUserException(e);
         }
-
-        UserEntity user = mapUserEntity(registrationRequest);
+        userListingCache.invalidate();
         Map<String, Object> data = new HashMap<>();
         data.put("Registered", LocalDateTime.now());
-
-
-
         publishUserEvent("register", user, data);
-
         return user;
-
     }
 
     @Override
@@ -96,7 +130,7 @@ public class UserServiceImpl implements UserService {
             );
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            UserEntity user = userRepository.findByUsername(loginRequest.getUsername())
+            UserEntity user = userCache.getByUsername(loginRequest.getUsername(), userRepository::findByUsername)
                     .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
             String jwt = jwtUtils.generateToken(user.getUsername(), user.getId(),user.getAuthorities());
@@ -105,7 +139,7 @@ public class UserServiceImpl implements UserService {
             authResponse.setToken(jwt);
             authResponse.setTokenType("Bearer");
             authResponse.setExpiresIn(jwtExpirationMinutes * 60);
-            authResponse.setUser(user);
+            authResponse.setUser(UserResponse.from(user));
 
             // Publicar evento de login exitoso
             Map<String, Object> data = new HashMap<>();
@@ -122,18 +156,11 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void requestPasswordRecovery(String email) {
-        UserEntity user = userRepository.findByEmail(email)
+        UserEntity user = userCache.getByEmail(email, userRepository::findByEmail)
                 .orElseThrow(() -> new RuntimeException("No se encontró un usuario con este correo electrónico"));
 
-        LocalDateTime now = LocalDateTime.now();
-        if (tokenRepository.existsByUserIdAndExpiryDateAfter(user.getId(), now)) {
-            tokenRepository.deleteByUserId(user.getId());
-        }
-
-        String tokenStr = UUID.randomUUID().toString();
-        LocalDateTime expiryDate = now.plusHours(1);
-        PasswordResetToken resetToken = new PasswordResetToken(null, tokenStr, user.getId(), expiryDate);
-        tokenRepository.save(resetToken);
+        LocalDateTime expiryDate = LocalDateTime.now().plusHours(1);
+        String tokenStr = passwordResetTokenService.issue(user, expiryDate);
 
         // Publicar evento de recuperación de contraseña
         Map<String, Object> data = new HashMap<>();
@@ -146,27 +173,17 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void resetPasswordForUser(Long userId, String token, String newPassword) {
-        PasswordResetToken resetToken = tokenRepository.findByToken(token)
-                .orElseThrow(() -> new RuntimeException("Token inválido"));
-
-        if (resetToken.isExpired()) {
-            tokenRepository.delete(resetToken);
-            throw new InvalidOneTimeTokenException("El token ha expirado");
-        }
-        if (!resetToken.getUserId().equals(userId)) {
-            throw new InvalidOneTimeTokenException("El token no corresponde al usuario");
-        }
         if (newPassword == null || newPassword.length() < 8) {
             throw new IllegalArgumentException("La nueva contraseña debe tener al menos 8 caracteres");
         }
 
-        UserEntity user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        passwordResetTokenService.redeem(userId, token, newPassword);
 
-        tokenRepository.delete(resetToken);
+        // Datos del evento desde la caché (la contraseña no forma parte de él), luego se invalida
+        UserEntity user = userCache.getById(userId, userRepository::findById)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        userCache.evict(userId);
+        userListingCache.invalidate();
 
         // Publicar evento de actualización de contraseña
         Map<String, Object> data = new HashMap<>();
@@ -182,20 +199,33 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserEntity updateUser(Long id, UserUpdateRequest updateRequest) {
-        UserEntity user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
+        return updateUser(id, updateRequest, null);
+    }
 
-        if (updateRequest.getEmail() != null &&
-                !updateRequest.getEmail().equals(user.getEmail()) &&
-                existsByEmail(updateRequest.getEmail())) {
-            throw new UserAlreadyExistException("El correo electrónico ya está en uso por otro usuario");
+    @Override
+    @Transactional
+    public UserEntity updateUser(Long id, UserUpdateRequest updateRequest, Long expectedVersion) {
+        UserEntity user = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con ID: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(UserEntity.class, id);
         }
 
         if (updateRequest.getFirstName() != null) user.setFirstName(updateRequest.getFirstName());
         if (updateRequest.getLastName() != null) user.setLastName(updateRequest.getLastName());
         if (updateRequest.getEmail() != null) user.setEmail(updateRequest.getEmail());
 
-        UserEntity updatedUser = userRepository.save(user);
+        // Un solo update con las columnas cambiadas y "where version = ?": si otra edición se confirmó
+        // después de la lectura no afecta a ninguna fila (conflicto de versión), y un email repetido
+        // lo rechaza la restricción única sin consultarlo antes
+        UserEntity updatedUser;
+        try {
+            updatedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUserException(e);
+        }
+        userCache.evict(id);
+        userListingCache.invalidate();
         // Publicar evento de actualización de usuario
         Map<String, Object> data = new HashMap<>();
         data.put("updateTime", LocalDateTime.now());
@@ -206,69 +236,182 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(Long id) {
-        Optional<UserEntity> userOpt = userRepository.findById(id);
-        if (userOpt.isPresent()) {
-            tokenRepository.deleteByUserId(id);
-            userRepository.deleteById(id);
-            // Publicar evento de eliminación de usuario
-            Map<String, Object> data = new HashMap<>();
-            data.put("deleteTime", LocalDateTime.now());
-            publishUserEvent("user-delete", userOpt.get(), data);
-        }
+        UserEntity user = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con ID: " + id));
+        tokenRepository.deleteByUserId(id);
+        userRepository.delete(user);
+        userCache.evict(id);
+        userListingCache.invalidate();
+        // Publicar evento de eliminación de usuario
+        Map<String, Object> data = new HashMap<>();
+        data.put("deleteTime", LocalDateTime.now());
+        publishUserEvent("user-delete", user, data);
     }
 
     @Override
     public Optional<UserEntity> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return userCache.getByUsername(username, userRepository::findByUsername);
     }
 
     @Override
     public Optional<UserEntity> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userCache.getByEmail(email, userRepository::findByEmail);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+        return userCache.existsByUsername(username, userRepository::existsByUsername);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return userCache.existsByEmail(email, userRepository::existsByEmail);
     }
 
     @Override
-    public Page<UserEntity> searchUsers(String searchTerm, Pageable pageable) {
-        return userRepository.findByUsernameContainingOrEmailContainingOrFirstNameContainingOrLastNameContaining(
-                searchTerm, searchTerm, searchTerm, searchTerm, pageable);
+    @Transactional(readOnly = true)
+    public Page<UserSummary> searchUsers(String searchTerm, Pageable pageable) {
+        return withRoles(userRepository.searchByAnyField(LikePatterns.contains(searchTerm), pageable));
     }
 
     @Override
     public Optional<UserEntity> getUserByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return userCache.getByUsername(username, userRepository::findByUsername);
     }
 
     @Override
     @Transactional
     public UserEntity updateUserRoles(Long id, Set<Role> roles) {
         UserEntity user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con ID: " + id));
         user.setAuthorities(roles);
-        return userRepository.save(user);
+        UserEntity updatedUser = userRepository.save(user);
+        userCache.evict(id);
+        userListingCache.invalidate();
+        return updatedUser;
     }
 
+    // Sin transacción propia: un acierto de la caché de listados no toma conexión; en un fallo la
+    // página, el count y los roles se leen en una sola transacción de solo lectura
     @Override
-    public Page<UserEntity> getAllUsersFiltered(Pageable pageable, String firstName, String lastName) {
+    public Page<UserSummary> getAllUsersFiltered(Pageable pageable, String firstName, String lastName) {
+        return userListingCache.getPage(pageable, firstName, lastName,
+                () -> readOnly(() -> findUsersFiltered(pageable, firstName, lastName)));
+    }
+
+    private Page<UserSummary> findUsersFiltered(Pageable pageable, String firstName, String lastName) {
         if ((firstName == null || firstName.isBlank()) && (lastName == null || lastName.isBlank())) {
-            return userRepository.findAll(pageable);
+            return withRoles(userRepository.findSummaries(pageable));
         }
         if (firstName != null && !firstName.isBlank() && (lastName == null || lastName.isBlank())) {
-            return userRepository.findByFirstNameContainingIgnoreCase(firstName, pageable);
+            return withRoles(userRepository.searchByFirstName(LikePatterns.contains(firstName), pageable));
         }
         if ((firstName == null || firstName.isBlank()) && lastName != null && !lastName.isBlank()) {
-            return userRepository.findByLastNameContainingIgnoreCase(lastName, pageable);
+            return withRoles(userRepository.searchByLastName(LikePatterns.contains(lastName), pageable));
         }
-        return userRepository.findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(firstName, lastName, pageable);
+        return withRoles(userRepository.searchByFirstNameAndLastName(
+                LikePatterns.contains(firstName), LikePatterns.contains(lastName), pageable));
+    }
+
+    @Override
+    public ListingPage<UserSummary> getUsersListing(Pageable pageable, String firstName, String lastName, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            Page<UserSummary> page = getAllUsersFiltered(pageable, firstName, lastName);
+            return new ListingPage<>(page.getContent(), page.getNumber(), page.getSize(), page.hasNext(),
+                    page.getTotalElements(), true);
+        }
+        return userListingCache.getListing(pageable, firstName, lastName, countMode,
+                () -> readOnly(() -> findUsersListing(pageable, firstName, lastName, countMode)));
+    }
+
+    private ListingPage<UserSummary> findUsersListing(Pageable pageable, String firstName, String lastName,
+                                                      CountMode countMode) {
+        Slice<UserSummary> slice = sliceUsersFiltered(pageable, firstName, lastName);
+        List<UserSummary> content = withRoles(slice.getContent());
+        // En la última página el total se deduce sin contar
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getPageNumber() == 0)) {
+            long total = pageable.getOffset() + slice.getNumberOfElements();
+            return new ListingPage<>(content, slice.getNumber(), slice.getSize(), false, total, true);
+        }
+        Long total = switch (countMode) {
+            case NONE -> null;
+            case ESTIMATED -> {
+                OptionalLong estimate = userCountService.estimatedCount(firstName, lastName);
+                yield estimate.isPresent() ? estimate.getAsLong() : userCountService.cachedCount(firstName, lastName);
+            }
+            default -> userCountService.cachedCount(firstName, lastName);
+        };
+        return new ListingPage<>(content, slice.getNumber(), slice.getSize(), slice.hasNext(), total, false);
+    }
+
+    private Slice<UserSummary> sliceUsersFiltered(Pageable pageable, String firstName, String lastName) {
+        boolean hasFirstName = firstName != null && !firstName.isBlank();
+        boolean hasLastName = lastName != null && !lastName.isBlank();
+        if (hasFirstName && hasLastName) {
+            return userRepository.sliceByFirstNameAndLastName(
+                    LikePatterns.contains(firstName), LikePatterns.contains(lastName), pageable);
+        }
+        if (hasFirstName) {
+            return userRepository.sliceByFirstName(LikePatterns.contains(firstName), pageable);
+        }
+        if (hasLastName) {
+            return userRepository.sliceByLastName(LikePatterns.contains(lastName), pageable);
+        }
+        return userRepository.sliceAll(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> getUsersByCursor(String sort, UserCursor after, int size) {
+        if (after != null && !after.sort().equals(sort)) {
+            throw new IllegalArgumentException("El cursor no corresponde a la ordenación solicitada");
+        }
+        // Se pide una fila extra para saber si existe una página siguiente sin hacer count
+        Limit limit = Limit.of(size + 1);
+        boolean byUsername = UserCursor.SORT_USERNAME.equals(sort);
+        List<UserSummary> rows;
+        if (after == null) {
+            rows = byUsername ? userRepository.findFirstPageOrderByUsername(limit) : userRepository.findFirstPageOrderById(limit);
+        } else {
+            rows = byUsername
+                    ? userRepository.findPageAfterUsername(after.key(), after.id(), limit)
+                    : userRepository.findPageAfterId(after.id(), limit);
+        }
+        if (rows.size() <= size) {
+            return new CursorPage<>(withRoles(rows), null);
+        }
+        List<UserSummary> content = withRoles(rows.subList(0, size));
+        UserSummary last = content.get(size - 1);
+        String nextCursor = new UserCursor(sort, byUsername ? last.username() : null, last.id()).encode();
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    // TransactionTemplate en lugar de @Transactional: el loader de la caché llama a métodos de esta
+    // misma clase, donde el proxy no interviene
+    private <T> T readOnly(Supplier<T> query) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> query.get());
+    }
+
+    private Page<UserSummary> withRoles(Page<UserSummary> page) {
+        return new PageImpl<>(withRoles(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    // Roles de toda la página en una sola consulta (IN), en lugar de cargar cada usuario con su colección
+    private List<UserSummary> withRoles(List<UserSummary> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        Map<Long, Set<Role>> roles = new HashMap<>();
+        for (UserRoleRow row : userRepository.findRolesByUserIds(users.stream().map(UserSummary::id).toList())) {
+            roles.computeIfAbsent(row.userId(), id -> EnumSet.noneOf(Role.class)).add(row.role());
+        }
+        return users.stream()
+                .map(user -> user.withAuthorities(roles.getOrDefault(user.id(), Set.of())))
+                .toList();
     }
 
     private UserEntity mapUserEntity(UserRegistrationRequest registrationRequest) {
@@ -280,16 +423,46 @@ public class UserServiceImpl implements UserService {
         user.setFirstName(registrationRequest.getFirstName());
         user.setLastName(registrationRequest.getLastName());
         user.addRole(Role.USER);
-        return userRepository.save(user);
+        return user;
+    }
+
+    // Traduce la violación de una restricción única de users al mensaje de negocio correspondiente.
+    // Se reconoce por el nombre de la restricción (migración V1) o, en bases creadas por Hibernate
+    // con nombres generados, por la columna que cita el mensaje del driver.
+    private static RuntimeException duplicateUserException(DataIntegrityViolationException e) {
+        String column = null;
+        for (Throwable t = e; t != null && column == null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                column = UNIQUE_CONSTRAINT_COLUMNS.get(violation.getConstraintName().toLowerCase(Locale.ROOT));
+            }
+        }
+        if (column == null) {
+            Matcher matcher = UNIQUE_COLUMN_IN_MESSAGE.matcher(String.valueOf(e.getMostSpecificCause().getMessage()));
+            column = matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : null;
+        }
+        if (column == null) {
+            return e;
+        }
+        return switch (column) {
+            case "username" -> new UserAlreadyExistException("El nombre de usuario ya está en uso");
+            case "email" -> new UserAlreadyExistException("El correo electrónico ya está registrado");
+            default -> new UserAlreadyExistException("El número de teléfono ya está registrado");
+        };
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<UserEntity> getAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable);
     }
 
     @Override
     public Optional<UserEntity> getUserById(Long id) {
-        return userRepository.findById(id);
+        return userCache.getById(id, userRepository::findById);
+    }
+
+    @Override
+    public Optional<Long> getUserVersion(Long id) {
+        return userCache.getVersion(id, userRepository::findVersionById);
     }
 }
@@ -0,0 +1,37 @@
+package com.proyecto.msvc_auth.util;
+
+import com.proyecto.msvc_auth.config.CacheInvalidationConfig;
+import com.proyecto.msvc_auth.models.CacheInvalidation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Difunde avisos de invalidación al resto de réplicas.
+ * Si el broker no está disponible el aviso se pierde; las réplicas lo compensan vaciando
+ * sus cachés al reconectar (ver CacheInvalidationListener).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    // Identifica a esta réplica para que ignore sus propios avisos
+    public static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public void publish(String entityType, String key) {
+        try {
+            rabbitTemplate.convertAndSend(CacheInvalidationConfig.CACHE_INVALIDATION_EXCHANGE, "",
+                    new CacheInvalidation(entityType, key, INSTANCE_ID));
+        } catch (AmqpException e) {
+            log.warn("No se pudo difundir la invalidación de caché: type={}, key={}, error={}",
+                    entityType, key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.proyecto.msvc_auth.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Métricas de las cachés Caffeine: las de Micrometer (cache.gets, cache.size, cache.evictions...)
+ * más la proporción de aciertos ya calculada, etiquetadas con el nombre de la caché.
+ */
+public final class CacheMetrics {
+
+    private CacheMetrics() {
+    }
+
+    public static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .description("Proporción de aciertos de la caché")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.proyecto.msvc_auth.util;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Indica al enrutado de lecturas (ver {@link ReplicaRoutingDataSource}) que el hilo actual debe leer
+ * del primario aunque la transacción sea de solo lectura: lecturas que no admiten datos con retraso
+ * de replicación, o las que siguen a una escritura dentro de la misma petición.
+ * Sin réplicas configuradas no tiene ningún efecto.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Integer> PRIMARY_SCOPES = ThreadLocal.withInitial(() -> 0);
+    private static final ThreadLocal<Long> PINNED_UNTIL = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        if (PRIMARY_SCOPES.get() > 0) {
+            return true;
+        }
+        Long pinnedUntil = PINNED_UNTIL.get();
+        if (pinnedUntil == null) {
+            return false;
+        }
+        if (System.nanoTime() - pinnedUntil < 0) {
+            return true;
+        }
+        PINNED_UNTIL.remove();
+        return false;
+    }
+
+    /**
+     * Ejecuta la acción leyendo del primario. Solo afecta a las transacciones que se abran dentro:
+     * si el hilo ya tiene una conexión de réplica en uso, se sigue usando esa.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        PRIMARY_SCOPES.set(PRIMARY_SCOPES.get() + 1);
+        try {
+            return action.get();
+        } finally {
+            int scopes = PRIMARY_SCOPES.get() - 1;
+            if (scopes == 0) {
+                PRIMARY_SCOPES.remove();
+            } else {
+                PRIMARY_SCOPES.set(scopes);
+            }
+        }
+    }
+
+    /**
+     * Lecturas posteriores del hilo al primario durante {@code window} (o hasta {@link #clear()}),
+     * para que vean lo que se acaba de escribir aunque la réplica vaya por detrás.
+     */
+    public static void pinToPrimary(Duration window) {
+        PINNED_UNTIL.set(System.nanoTime() + window.toNanos());
+    }
+
+    public static void clear() {
+        PINNED_UNTIL.remove();
+    }
+}
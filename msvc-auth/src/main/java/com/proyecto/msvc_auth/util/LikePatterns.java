@@ -0,0 +1,22 @@
+package com.proyecto.msvc_auth.util;
+
+/**
+ * Construcción de patrones para las consultas ilike de los repositorios.
+ */
+public final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Patrón '%term%' que busca el término como subcadena, escapando los comodines que traiga
+     * el propio término (las consultas declaran {@code escape '\'}).
+     */
+    public static String contains(String term) {
+        String escaped = term.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -1,8 +1,11 @@
 package com.proyecto.msvc_auth.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,6 +26,9 @@ public class RabbitMQLogger {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${rabbitmq.log.queue:log_queue}")
     private String logQueueName;
 
@@ -30,6 +36,8 @@ public class RabbitMQLogger {
     private String serviceName;
 
     private void sendLog(String level, String message, Map<String, Object> meta) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             Map<String, Object> payload = new HashMap<>();
             payload.put("service", serviceName);
@@ -37,12 +45,25 @@ public class RabbitMQLogger {
             payload.put("message", message);
             payload.put("meta", meta != null ? meta : new HashMap<>());
             payload.put("timestamp", Instant.now().toString());
+            // Micrometer Tracing deja la traza actual en el MDC: permite cruzar el log con la traza
+            String traceId = MDC.get("traceId");
+            if (traceId != null) {
+                payload.put("traceId", traceId);
+                payload.put("spanId", MDC.get("spanId"));
+            }
 
             String jsonPayload = objectMapper.writeValueAsString(payload);
             rabbitTemplate.convertAndSend(logQueueName, jsonPayload);
+            outcome = "success";
         } catch (Exception e) {
             // Don't fail the application if logging fails
             log.error("Failed to send log to RabbitMQ: {}", e.getMessage());
+        } finally {
+            sample.stop(Timer.builder("rabbitmq.log.publish")
+                    .description("Tiempo de serializar y enviar un log a RabbitMQ")
+                    .tag("level", level)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 
@@ -0,0 +1,146 @@
+package com.proyecto.msvc_auth.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estado de las dependencias para la sonda de readiness, comprobado en segundo plano.
+ * <p>
+ * Un hilo propio (no depende de scheduling.enabled) pide cada intervalo una conexión al pool del
+ * primario con una consulta trivial y la conexión con RabbitMQ; la sonda solo lee el último resultado,
+ * así que su coste no depende del estado de las dependencias. Si una comprobación se queda colgada,
+ * el resultado deja de considerarse válido pasado {@code health.readiness.max-staleness} y la
+ * instancia pasa a no estar lista.
+ */
+@Component
+@Slf4j
+public class ReadinessChecker {
+
+    public enum Readiness { READY, DATABASE_DOWN, BROKER_DOWN, DOWN }
+
+    private final DataSource dataSource;
+    private final ConnectionFactory connectionFactory;
+    private final Duration interval;
+    private final int timeoutSeconds;
+    private final long maxStalenessNanos;
+    private final boolean checkBroker;
+    private ScheduledExecutorService checker;
+
+    private volatile boolean databaseUp;
+    private volatile boolean brokerUp;
+    // Hasta la primera comprobación la instancia no está lista
+    private volatile long lastCheckNanos;
+    private volatile boolean checked;
+
+    public ReadinessChecker(DataSource dataSource,
+                            ConnectionFactory connectionFactory,
+                            MeterRegistry meterRegistry,
+                            @Value("${health.readiness.interval:5s}") Duration interval,
+                            @Value("${health.readiness.timeout:2s}") Duration timeout,
+                            @Value("${health.readiness.max-staleness:30s}") Duration maxStaleness,
+                            @Value("${health.readiness.check-broker:true}") boolean checkBroker) {
+        this.dataSource = dataSource;
+        this.connectionFactory = connectionFactory;
+        this.interval = interval;
+        this.timeoutSeconds = (int) Math.max(1, timeout.toSeconds());
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.checkBroker = checkBroker;
+        Gauge.builder("health.dependency.up", this, c -> c.databaseUp ? 1 : 0)
+                .tag("dependency", "database")
+                .description("1 si la última comprobación de la dependencia fue correcta")
+                .register(meterRegistry);
+        Gauge.builder("health.dependency.up", this, c -> c.brokerUp ? 1 : 0)
+                .tag("dependency", "broker")
+                .description("1 si la última comprobación de la dependencia fue correcta")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "readiness-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::check, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        checker.shutdownNow();
+    }
+
+    /**
+     * Último estado conocido; no hace E/S ni reserva memoria.
+     */
+    public Readiness readiness() {
+        if (!checked || System.nanoTime() - lastCheckNanos > maxStalenessNanos) {
+            return Readiness.DOWN;
+        }
+        if (databaseUp) {
+            return brokerUp ? Readiness.READY : Readiness.BROKER_DOWN;
+        }
+        return brokerUp ? Readiness.DATABASE_DOWN : Readiness.DOWN;
+    }
+
+    void check() {
+        boolean database = databaseReachable();
+        boolean broker = !checkBroker || brokerReachable();
+        logTransition("PostgreSQL", databaseUp, database, checked);
+        if (checkBroker) {
+            logTransition("RabbitMQ", brokerUp, broker, checked);
+        }
+        databaseUp = database;
+        brokerUp = broker;
+        lastCheckNanos = System.nanoTime();
+        checked = true;
+    }
+
+    private boolean databaseReachable() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(timeoutSeconds);
+            statement.execute("select 1");
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Comprobación de PostgreSQL fallida: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // La conexión de CachingConnectionFactory es compartida: cerrarla aquí no la cierra de verdad
+    private boolean brokerReachable() {
+        try (org.springframework.amqp.rabbit.connection.Connection connection = connectionFactory.createConnection()) {
+            return connection.isOpen();
+        } catch (RuntimeException e) {
+            log.debug("Comprobación de RabbitMQ fallida: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void logTransition(String dependency, boolean previous, boolean current, boolean checkedBefore) {
+        if (current == previous && checkedBefore) {
+            return;
+        }
+        if (current) {
+            log.info("{} disponible", dependency);
+        } else {
+            log.warn("{} no responde: la instancia no estará lista mientras tanto", dependency);
+        }
+    }
+}
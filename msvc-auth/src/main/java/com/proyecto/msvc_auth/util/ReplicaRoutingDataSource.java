@@ -0,0 +1,142 @@
+package com.proyecto.msvc_auth.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a las réplicas (round robin entre las sanas)
+ * y todo lo demás al primario.
+ * <p>
+ * La decisión se toma al pedir la conexión, así que debe usarse detrás de un
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: así la conexión se pide
+ * cuando la transacción ya está marcada como readOnly. Una comprobación periódica retira las réplicas
+ * que no responden y las vuelve a usar cuando se recuperan; si una réplica falla al dar una conexión,
+ * se marca como caída y la lectura va al primario.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicaKeys = List.copyOf(this.replicas.keySet());
+        this.replicaKeys.forEach(key -> healthy.put(key, true));
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || DataSourceRouting.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicaKeys.size());
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String key = replicaKeys.get((start + i) % replicaKeys.size());
+            if (healthy.get(key)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String key = (String) determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            return replicas.get(key).getConnection();
+        } catch (SQLException e) {
+            markUnhealthy(key, e);
+            return primary.getConnection();
+        }
+    }
+
+    public List<String> healthyReplicas() {
+        return replicaKeys.stream().filter(healthy::get).toList();
+    }
+
+    void checkHealth() {
+        for (String key : replicaKeys) {
+            boolean up;
+            try (Connection connection = replicas.get(key).getConnection()) {
+                up = connection.isValid(2);
+            } catch (SQLException e) {
+                up = false;
+            }
+            Boolean previous = healthy.put(key, up);
+            if (up && Boolean.FALSE.equals(previous)) {
+                log.info("Réplica {} disponible de nuevo", key);
+            } else if (!up && Boolean.TRUE.equals(previous)) {
+                log.warn("Réplica {} no responde: sus lecturas pasan al primario", key);
+            }
+        }
+    }
+
+    private void markUnhealthy(String key, SQLException e) {
+        if (Boolean.TRUE.equals(healthy.put(key, false))) {
+            log.warn("Réplica {} no disponible ({}): sus lecturas pasan al primario", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (DataSource dataSource : replicas.values()) {
+            closeQuietly(dataSource);
+        }
+        closeQuietly(primary);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.debug("Error al cerrar el pool: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.proyecto.msvc_auth.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.models.CacheInvalidation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Caché en memoria de usuarios por id, username y email (Caffeine: desalojo W-TinyLFU y TTL).
+ * <p>
+ * Guarda copias desacopladas de la entidad y devuelve siempre una copia nueva, así que quien la
+ * modifique no altera la caché. Solo se cachean usuarios existentes: un "no existe" siempre se
+ * comprueba en la base de datos para no dar por libre un username o email ya registrado.
+ * Las escrituras deben llamar a {@link #evict(Long)}, que además avisa al resto de réplicas.
+ * Los usuarios se cargan siempre del primario: una réplica de lectura con retraso devolvería el usuario
+ * de antes de la última escritura y quedaría cacheado hasta el TTL.
+ * Como en {@link UserListingCache}, una generación que avanza con cada invalidación impide guardar un
+ * usuario leído antes de una escritura que terminó mientras se cargaba.
+ */
+@Component
+public class UserCache {
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<Long, UserEntity> byId;
+    private final Cache<String, Long> usernameToId;
+    private final Cache<String, Long> emailToId;
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    public UserCache(MeterRegistry meterRegistry,
+                     CacheInvalidationPublisher invalidationPublisher,
+                     @Value("${users.cache.max-size:10000}") long maxSize,
+                     @Value("${users.cache.ttl:10m}") Duration ttl) {
+        this.invalidationPublisher = invalidationPublisher;
+        this.byId = newCache(maxSize, ttl);
+        this.usernameToId = newCache(maxSize, ttl);
+        this.emailToId = newCache(maxSize, ttl);
+        CacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+        CacheMetrics.monitor(meterRegistry, usernameToId, "users.by-username");
+        CacheMetrics.monitor(meterRegistry, emailToId, "users.by-email");
+    }
+
+    public Optional<UserEntity> getById(Long id, Function<Long, Optional<UserEntity>> loader) {
+        UserEntity cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        long loadedAt = generation.get();
+        Optional<UserEntity> loaded = DataSourceRouting.onPrimary(() -> loader.apply(id));
+        loaded.ifPresent(user -> put(user, loadedAt));
+        return loaded;
+    }
+
+    /**
+     * Versión del usuario si está en caché, sin copiarlo; si no, la que devuelva el loader (que no se cachea).
+     */
+    public Optional<Long> getVersion(Long id, Function<Long, Optional<Long>> loader) {
+        UserEntity cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.ofNullable(cached.getVersion());
+        }
+        return DataSourceRouting.onPrimary(() -> loader.apply(id));
+    }
+
+    public Optional<UserEntity> getByUsername(String username, Function<String, Optional<UserEntity>> loader) {
+        return lookup(usernameToId, username, UserEntity::getUsername, loader);
+    }
+
+    public Optional<UserEntity> getByEmail(String email, Function<String, Optional<UserEntity>> loader) {
+        return lookup(emailToId, email, UserEntity::getEmail, loader);
+    }
+
+    public boolean existsByUsername(String username, Predicate<String> databaseCheck) {
+        return cached(usernameToId, username, UserEntity::getUsername) != null || databaseCheck.test(username);
+    }
+
+    public boolean existsByEmail(String email, Predicate<String> databaseCheck) {
+        return cached(emailToId, email, UserEntity::getEmail) != null || databaseCheck.test(email);
+    }
+
+    /**
+     * Elimina el usuario de la caché y avisa al resto de réplicas. Dentro de una transacción se
+     * vuelve a eliminar (y se avisa) tras el commit, por si otra petición lo recargó con los datos
+     * antiguos mientras la transacción seguía abierta.
+     */
+    public void evict(Long id) {
+        if (id == null) {
+            return;
+        }
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(id);
+                    invalidationPublisher.publish(CacheInvalidation.USER, id.toString());
+                }
+            });
+        } else {
+            invalidationPublisher.publish(CacheInvalidation.USER, id.toString());
+        }
+    }
+
+    /**
+     * Elimina el usuario solo de la caché de esta réplica (aviso recibido de otra réplica).
+     */
+    public void evictLocal(Long id) {
+        invalidate(id);
+    }
+
+    public void evictAllLocal() {
+        generation.incrementAndGet();
+        byId.invalidateAll();
+        usernameToId.invalidateAll();
+        emailToId.invalidateAll();
+    }
+
+    private Optional<UserEntity> lookup(Cache<String, Long> index, String key,
+                                        Function<UserEntity, String> keyOf,
+                                        Function<String, Optional<UserEntity>> loader) {
+        UserEntity cached = cached(index, key, keyOf);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        long loadedAt = generation.get();
+        Optional<UserEntity> loaded = DataSourceRouting.onPrimary(() -> loader.apply(key));
+        loaded.ifPresent(user -> put(user, loadedAt));
+        return loaded;
+    }
+
+    // Resuelve username/email -> id -> usuario, descartando índices que apunten a datos ya cambiados
+    private UserEntity cached(Cache<String, Long> index, String key, Function<UserEntity, String> keyOf) {
+        if (key == null) {
+            return null;
+        }
+        Long id = index.getIfPresent(key);
+        if (id == null) {
+            return null;
+        }
+        UserEntity user = byId.getIfPresent(id);
+        if (user == null || !Objects.equals(keyOf.apply(user), key)) {
+            index.invalidate(key);
+            return null;
+        }
+        return user;
+    }
+
+    // Si hubo alguna invalidación desde que empezó la carga, el usuario puede ser anterior a esa
+    // escritura y no se guarda. La comprobación se repite tras el put por si la invalidación llegó
+    // justo entre medias y ya había limpiado la entrada
+    private void put(UserEntity user, long loadedAt) {
+        if (user.getId() == null || generation.get() != loadedAt) {
+            return;
+        }
+        byId.put(user.getId(), copyOf(user));
+        if (user.getUsername() != null) {
+            usernameToId.put(user.getUsername(), user.getId());
+        }
+        if (user.getEmail() != null) {
+            emailToId.put(user.getEmail(), user.getId());
+        }
+        if (generation.get() != loadedAt) {
+            invalidate(user.getId());
+        }
+    }
+
+    private void invalidate(Long id) {
+        generation.incrementAndGet();
+        UserEntity cached = byId.getIfPresent(id);
+        byId.invalidate(id);
+        if (cached != null) {
+            usernameToId.invalidate(cached.getUsername());
+            emailToId.invalidate(cached.getEmail());
+        }
+    }
+
+    private static UserEntity copyOf(UserEntity user) {
+        return new UserEntity(user.getId(), user.getUsername(), user.getEmail(), user.getMobileNumber(),
+                user.getPassword(), user.getFirstName(), user.getLastName(),
+                user.getAuthorities() == null ? new HashSet<>() : new HashSet<>(user.getAuthorities()),
+                user.getVersion());
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.proyecto.msvc_auth.util;
+
+import com.proyecto.msvc_auth.config.RabbitConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recuperador de mensajes fallidos en los listeners.
+ * En lugar de reintentar en el mismo hilo, publica el mensaje en la cola de espera del siguiente
+ * intento y confirma el original; el hilo del listener queda libre de inmediato. Cuando se agotan
+ * los intentos (o el mensaje no se puede deserializar) el mensaje se aparca en la DLQ.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserEventRetryRecoverer implements MessageRecoverer {
+
+    public static final String RETRY_ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String ORIGINAL_QUEUE_HEADER = "x-original-queue";
+    public static final String LAST_ERROR_HEADER = "x-last-error";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${rabbitmq.events.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        MessageProperties properties = message.getMessageProperties();
+        String originalQueue = properties.getHeader(ORIGINAL_QUEUE_HEADER);
+        if (originalQueue == null) {
+            originalQueue = properties.getConsumerQueue();
+            properties.setHeader(ORIGINAL_QUEUE_HEADER, originalQueue);
+        }
+        Integer previousAttempts = properties.getHeader(RETRY_ATTEMPT_HEADER);
+        int attempt = (previousAttempts == null ? 0 : previousAttempts) + 1;
+        properties.setHeader(LAST_ERROR_HEADER, errorMessage(cause));
+
+        if (attempt > maxAttempts || isFatal(cause) || originalQueue == null) {
+            log.warn("Mensaje enviado a la DLQ: queue={}, attempts={}, error={}",
+                    originalQueue, attempt - 1, errorMessage(cause));
+            rabbitTemplate.send(RabbitConfig.USER_EVENTS_DLX, RabbitConfig.USER_EVENTS_DLQ, message);
+            return;
+        }
+
+        properties.setHeader(RETRY_ATTEMPT_HEADER, attempt);
+        rabbitTemplate.send(RabbitConfig.USER_EVENTS_RETRY_EXCHANGE,
+                RabbitConfig.retryRoutingPrefix(attempt) + "." + originalQueue, message);
+        log.info("Mensaje programado para reintento: queue={}, attempt={}", originalQueue, attempt);
+    }
+
+    // Un mensaje que no se puede convertir fallará siempre: no tiene sentido reintentarlo
+    private boolean isFatal(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof MessageConversionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String errorMessage(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        String message = root.getClass().getSimpleName() + ": " + root.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
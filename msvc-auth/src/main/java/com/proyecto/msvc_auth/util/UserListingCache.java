@@ -0,0 +1,141 @@
+package com.proyecto.msvc_auth.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.proyecto.msvc_auth.models.CacheInvalidation;
+import com.proyecto.msvc_auth.models.CountMode;
+import com.proyecto.msvc_auth.models.ListingPage;
+import com.proyecto.msvc_auth.models.UserSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de páginas de los listados de usuarios (contenido y total), por parámetros normalizados.
+ * <p>
+ * No se sigue qué usuarios contiene cada entrada: la clave incluye una "generación" global que
+ * cualquier escritura de usuarios incrementa con {@link #invalidate()}, así que tras una escritura
+ * las entradas anteriores dejan de encontrarse y salen por tamaño o TTL. El tamaño se limita por
+ * memoria estimada. El TTL acota lo que puede durar un listado con datos de una réplica de lectura
+ * retrasada o de escrituras que no pasan por el servicio. Las filas son records inmutables: se
+ * devuelven las mismas instancias en cada acierto, sin copiarlas.
+ */
+@Component
+public class UserListingCache {
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<ListingKey, ListingPage<UserSummary>> pages;
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    public UserListingCache(MeterRegistry meterRegistry,
+                            CacheInvalidationPublisher invalidationPublisher,
+                            @Value("${users.listing-cache.max-memory:16MB}") DataSize maxMemory,
+                            @Value("${users.listing-cache.ttl:1m}") Duration ttl) {
+        this.invalidationPublisher = invalidationPublisher;
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher((ListingKey key, ListingPage<UserSummary> page) -> estimatedBytes(page))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CacheMetrics.monitor(meterRegistry, pages, "users.listings");
+    }
+
+    /**
+     * Página con total exacto (count(*)).
+     */
+    public Page<UserSummary> getPage(Pageable pageable, String firstName, String lastName,
+                                     Supplier<Page<UserSummary>> loader) {
+        ListingPage<UserSummary> page = get(key(pageable, firstName, lastName, CountMode.EXACT), () -> {
+            Page<UserSummary> loaded = loader.get();
+            return new ListingPage<>(loaded.getContent(), loaded.getNumber(), loaded.getSize(), loaded.hasNext(),
+                    loaded.getTotalElements(), true);
+        });
+        return new PageImpl<>(page.content(), pageable, page.totalElements());
+    }
+
+    public ListingPage<UserSummary> getListing(Pageable pageable, String firstName, String lastName,
+                                               CountMode countMode, Supplier<ListingPage<UserSummary>> loader) {
+        return get(key(pageable, firstName, lastName, countMode), loader);
+    }
+
+    /**
+     * Invalida todos los listados y avisa al resto de réplicas. Dentro de una transacción se vuelve a
+     * invalidar (y se avisa) tras el commit, por si otra petición cacheó la página con los datos
+     * antiguos mientras la transacción seguía abierta.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                    invalidationPublisher.publish(CacheInvalidation.USER_LISTINGS, "");
+                }
+            });
+        } else {
+            invalidationPublisher.publish(CacheInvalidation.USER_LISTINGS, "");
+        }
+    }
+
+    /**
+     * Invalida los listados solo en esta réplica (aviso recibido de otra réplica o reconexión).
+     */
+    public void invalidateLocal() {
+        generation.incrementAndGet();
+    }
+
+    // La generación se lee antes de consultar: si una escritura la incrementa mientras tanto, la
+    // página se guarda con la generación anterior y ya no se sirve
+    private ListingPage<UserSummary> get(ListingKey key, Supplier<ListingPage<UserSummary>> loader) {
+        ListingPage<UserSummary> cached = pages.getIfPresent(key);
+        if (cached == null) {
+            ListingPage<UserSummary> loaded = loader.get();
+            cached = new ListingPage<>(List.copyOf(loaded.content()), loaded.number(), loaded.size(),
+                    loaded.hasNext(), loaded.totalElements(), loaded.totalExact());
+            pages.put(key, cached);
+        }
+        return cached;
+    }
+
+    private ListingKey key(Pageable pageable, String firstName, String lastName, CountMode countMode) {
+        return new ListingKey(generation.get(), pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSort().toString(), normalize(firstName), normalize(lastName), countMode);
+    }
+
+    // Los filtros son ilike: "Ana" y "ana" devuelven lo mismo; vacío equivale a sin filtro
+    private static String normalize(String filter) {
+        return filter == null || filter.isBlank() ? null : filter.toLowerCase(Locale.ROOT);
+    }
+
+    // Aproximación: cabeceras de objeto y referencias más dos bytes por carácter de cada texto
+    private static int estimatedBytes(ListingPage<UserSummary> page) {
+        int bytes = 128;
+        for (UserSummary user : page.content()) {
+            bytes += 192 + 2 * (length(user.username()) + length(user.email())
+                    + length(user.firstName()) + length(user.lastName()));
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private record ListingKey(long generation, int page, int size, String sort, String firstName,
+                              String lastName, CountMode countMode) {
+    }
+}
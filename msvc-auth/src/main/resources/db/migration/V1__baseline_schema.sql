@@ -0,0 +1,31 @@
+-- Esquema inicial de msvc-auth (equivalente al que generaba hibernate ddl-auto=update).
+-- En bases existentes no se ejecuta: baseline-on-migrate las marca directamente en la versión 1.
+
+CREATE TABLE IF NOT EXISTS users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username      VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    mobile_number VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    first_name    VARCHAR(255),
+    last_name     VARCHAR(255),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_mobile_number UNIQUE (mobile_number)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id     BIGINT       NOT NULL,
+    authorities VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_user_roles PRIMARY KEY (user_id, authorities),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT ck_user_roles_authorities CHECK (authorities IN ('ADMIN', 'USER', 'SERVICE'))
+);
+
+CREATE TABLE IF NOT EXISTS password_reset_tokens (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token       VARCHAR(255) NOT NULL,
+    user_id     BIGINT       NOT NULL,
+    expiry_date TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_password_reset_tokens_token UNIQUE (token)
+);
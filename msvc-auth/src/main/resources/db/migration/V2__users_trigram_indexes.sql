@@ -0,0 +1,9 @@
+-- Índices trigram para las búsquedas por subcadena (ilike '%term%') sobre usuarios.
+-- Un índice B-tree no sirve para patrones con comodín inicial; GIN + gin_trgm_ops sí.
+-- CONCURRENTLY no bloquea escrituras mientras se construye el índice (ver .sql.conf).
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_trgm ON users USING gin (username gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm ON users USING gin (email gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_first_name_trgm ON users USING gin (first_name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_last_name_trgm ON users USING gin (last_name gin_trgm_ops);
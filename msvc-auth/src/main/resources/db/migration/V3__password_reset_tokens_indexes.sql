@@ -0,0 +1,6 @@
+-- Búsquedas/borrados de tokens por usuario (findByUserId, deleteByUserId,
+-- existsByUserIdAndExpiryDateAfter) y limpieza de tokens caducados (deleteByExpiryDateBefore).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_password_reset_tokens_user_id_expiry
+    ON password_reset_tokens (user_id, expiry_date);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_password_reset_tokens_expiry_date
+    ON password_reset_tokens (expiry_date);
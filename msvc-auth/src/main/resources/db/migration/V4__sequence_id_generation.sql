@@ -0,0 +1,20 @@
+-- Ids generados por secuencia (optimizador pooled de Hibernate, incremento 50) en lugar de IDENTITY:
+-- con IDENTITY Hibernate tiene que ejecutar cada insert por separado para conocer el id y no agrupa lotes.
+-- Hibernate toma cada nextval como el extremo superior de un bloque de 50 ids libres, así que la
+-- secuencia se coloca 50 por encima del id máximo actual.
+-- El DEFAULT se mantiene para los inserts hechos a mano: cada uno consume un bloque entero, pero el
+-- id que obtiene nunca cae dentro de un bloque reservado por Hibernate.
+
+LOCK TABLE users, password_reset_tokens IN EXCLUSIVE MODE;
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS users_id_seq;
+ALTER SEQUENCE users_id_seq INCREMENT BY 50 OWNED BY users.id;
+SELECT setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_id_seq');
+
+ALTER TABLE password_reset_tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS password_reset_tokens_id_seq;
+ALTER SEQUENCE password_reset_tokens_id_seq INCREMENT BY 50 OWNED BY password_reset_tokens.id;
+SELECT setval('password_reset_tokens_id_seq', COALESCE((SELECT MAX(id) FROM password_reset_tokens), 0) + 50, false);
+ALTER TABLE password_reset_tokens ALTER COLUMN id SET DEFAULT nextval('password_reset_tokens_id_seq');
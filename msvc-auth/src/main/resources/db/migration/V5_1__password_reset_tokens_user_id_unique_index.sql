@@ -0,0 +1,5 @@
+-- Índice único por user_id construido con CONCURRENTLY: no bloquea escrituras mientras se crea (ver .sql.conf).
+-- Si un intento anterior falló (p. ej. un duplicado insertado después de V5) queda un índice INVALID
+-- con el mismo nombre, que se elimina antes de volver a crearlo.
+DROP INDEX CONCURRENTLY IF EXISTS uk_password_reset_tokens_user_id;
+CREATE UNIQUE INDEX CONCURRENTLY uk_password_reset_tokens_user_id ON password_reset_tokens (user_id);
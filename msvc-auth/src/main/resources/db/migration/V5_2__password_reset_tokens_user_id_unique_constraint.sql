@@ -0,0 +1,3 @@
+-- La restricción reutiliza el índice de V5_1: solo toma el bloqueo un instante, sin recorrer la tabla.
+ALTER TABLE password_reset_tokens
+    ADD CONSTRAINT uk_password_reset_tokens_user_id UNIQUE USING INDEX uk_password_reset_tokens_user_id;
@@ -0,0 +1,2 @@
+-- El índice único cubre las búsquedas por user_id
+DROP INDEX CONCURRENTLY IF EXISTS idx_password_reset_tokens_user_id_expiry;
@@ -0,0 +1,8 @@
+-- Un único token de restablecimiento por usuario: la solicitud de recuperación hace un upsert
+-- (INSERT ... ON CONFLICT (user_id)) en lugar de comprobar, borrar e insertar.
+-- Antes se conserva solo el token más reciente de cada usuario; el índice único se crea sin
+-- bloquear escrituras en V5_1 y se convierte en restricción en V5_2.
+DELETE FROM password_reset_tokens t
+USING password_reset_tokens newer
+WHERE newer.user_id = t.user_id
+  AND (newer.expiry_date, newer.id) > (t.expiry_date, t.id);
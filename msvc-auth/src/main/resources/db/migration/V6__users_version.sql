@@ -0,0 +1,3 @@
+-- Versión de cada usuario: bloqueo optimista (@Version) y ETag de GET /api/auth/users/{id}.
+-- Con un DEFAULT constante PostgreSQL no reescribe la tabla.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,113 @@
+package com.proyecto.msvc_auth.benchmark;
+
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+/**
+ * Alta masiva de usuarios con JPA: una sentencia por fila (lo que obligaba IDENTITY) frente a lotes JDBC.
+ * <p>
+ * Se ejecuta con {@code gradle benchmark} (no forma parte de {@code test}). Por defecto usa H2 en memoria,
+ * donde una ida y vuelta cuesta casi nada; para cifras representativas hay que apuntarlo a PostgreSQL
+ * (ver benchmarks/README.md).
+ */
+@Tag("benchmark")
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserInsertBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 20_000);
+    private static final int CHUNK = 1_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bulkInsert_RowByRowVersusJdbcBatches() {
+        // Calentamiento (JIT, pool de conexiones, caché de sentencias)
+        run("calentamiento", 1, Math.min(USERS, 2_000));
+        run("calentamiento", 0, Math.min(USERS, 2_000));
+
+        Result rowByRow = run("una sentencia por fila", 1, USERS);
+        Result batched = run("lotes JDBC", 0, USERS);
+
+        System.out.printf("%nAlta de %d usuarios (con su rol), bloques de %d por transacción%n", USERS, CHUNK);
+        System.out.println(rowByRow);
+        System.out.println(batched);
+        System.out.printf("Mejora: x%.1f%n", (double) rowByRow.millis() / Math.max(1, batched.millis()));
+    }
+
+    // batchSize 0 = el configurado (hibernate.jdbc.batch_size)
+    private Result run(String name, int batchSize, int users) {
+        clean();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int from = 0; from < users; from += CHUNK) {
+            int first = from;
+            int last = Math.min(users, from + CHUNK);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (batchSize > 0) {
+                    entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                }
+                for (int i = first; i < last; i++) {
+                    entityManager.persist(user(i));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(name, users, millis, statistics.getPrepareStatementCount());
+    }
+
+    private void clean() {
+        jdbcTemplate.update("delete from user_roles");
+        jdbcTemplate.update("delete from users");
+    }
+
+    private static UserEntity user(int i) {
+        UserEntity user = new UserEntity();
+        user.setUsername("bench" + i);
+        user.setEmail("bench" + i + "@example.com");
+        user.setMobileNumber("+57" + i);
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuNn3Vj6WvZf3ODq2y4uK7W6h2zH0Yk5e");
+        user.setFirstName("Nombre" + i);
+        user.setLastName("Apellido" + i);
+        user.setAuthorities(Set.of(Role.USER));
+        return user;
+    }
+
+    private record Result(String name, int users, long millis, long statements) {
+        @Override
+        public String toString() {
+            return String.format("%-24s %8d ms %10.0f usuarios/s %8d sentencias preparadas",
+                    name, millis, users * 1000.0 / Math.max(1, millis), statements);
+        }
+    }
+}
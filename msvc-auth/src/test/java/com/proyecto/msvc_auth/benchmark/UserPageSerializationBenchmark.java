@@ -0,0 +1,116 @@
+package com.proyecto.msvc_auth.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.proyecto.msvc_auth.DTO.UserPageResponse;
+import com.proyecto.msvc_auth.DTO.UserSummaryResponse;
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.models.UserSummary;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Serialización de una página de 100 usuarios: el HashMap que montaba antes el controlador frente al
+ * record {@link UserPageResponse}, con y sin Blackbird. Escribe a un stream que descarta los bytes,
+ * como hace el conversor de Spring con la respuesta, para medir solo Jackson.
+ * <p>
+ * Se ejecuta con {@code gradle benchmark} (ver benchmarks/README.md).
+ */
+@Tag("benchmark")
+class UserPageSerializationBenchmark {
+
+    private static final int USERS = 100;
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 50_000);
+
+    @Test
+    void userPage_MapVersusRecordVersusBlackbird() throws Exception {
+        Page<UserSummary> page = new PageImpl<>(users(), PageRequest.of(0, USERS), 10_000);
+        ObjectMapper plain = new ObjectMapper();
+        ObjectMapper blackbird = new ObjectMapper().registerModule(new BlackbirdModule());
+
+        Supplier<Object> asMap = () -> mapBody(page);
+        Supplier<Object> asRecord = () -> UserPageResponse.exact(page);
+
+        // Calentamiento (JIT y cachés de serializadores de Jackson)
+        for (int i = 0; i < 3; i++) {
+            run("calentamiento", plain, asMap, ITERATIONS / 5);
+            run("calentamiento", plain, asRecord, ITERATIONS / 5);
+            run("calentamiento", blackbird, asRecord, ITERATIONS / 5);
+        }
+
+        Result map = run("HashMap", plain, asMap, ITERATIONS);
+        Result record = run("record", plain, asRecord, ITERATIONS);
+        Result recordBlackbird = run("record + Blackbird", blackbird, asRecord, ITERATIONS);
+
+        System.out.printf("%nPágina de %d usuarios, %d serializaciones por variante%n", USERS, ITERATIONS);
+        System.out.println(map);
+        System.out.println(record);
+        System.out.println(recordBlackbird);
+        System.out.printf("Mejora: x%.2f%n", (double) map.nanosPerOp() / Math.max(1, recordBlackbird.nanosPerOp()));
+    }
+
+    private static Result run(String name, ObjectMapper mapper, Supplier<Object> body, int iterations)
+            throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValue(out, body.get());
+        }
+        long nanos = System.nanoTime() - start;
+        return new Result(name, nanos / iterations, out.count / iterations);
+    }
+
+    // Cuerpo de GET /users tal como se construía antes de los records
+    private static Map<String, Object> mapBody(Page<UserSummary> page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", page.getContent().stream().map(UserSummaryResponse::from).toList());
+        response.put("totalElements", page.getTotalElements());
+        response.put("totalPages", page.getTotalPages());
+        response.put("size", page.getSize());
+        response.put("number", page.getNumber());
+        response.put("hasNext", page.hasNext());
+        response.put("totalExact", true);
+        return response;
+    }
+
+    private static List<UserSummary> users() {
+        List<UserSummary> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new UserSummary((long) i, "bench" + i, "bench" + i + "@example.com", "Nombre" + i,
+                    "Apellido" + i, 0L, Set.of(Role.USER)));
+        }
+        return users;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    private record Result(String name, long nanosPerOp, long bytes) {
+        @Override
+        public String toString() {
+            return String.format("%-20s %10d ns/op %8d bytes", name, nanosPerOp, bytes);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.proyecto.msvc_auth.config;
+
+import com.proyecto.msvc_auth.models.UserEvent;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler.FirstMatchingCompositeObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.handler.PropagatingSenderTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Trazas reales de OpenTelemetry recogidas con un exportador en memoria, sin arrancar el contexto.
+ */
+class TracingConfigTest {
+
+    private InMemorySpanExporter spans;
+    private SdkTracerProvider tracerProvider;
+    private ObservationRegistry observationRegistry;
+
+    @BeforeEach
+    void setUp() {
+        spans = InMemorySpanExporter.create();
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(spans))
+                .build();
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        io.opentelemetry.api.trace.Tracer otelTracer = openTelemetry.getTracer("test");
+        OtelTracer tracer = new OtelTracer(otelTracer, new OtelCurrentTraceContext(), event -> { });
+        OtelPropagator propagator = new OtelPropagator(openTelemetry.getPropagators(), otelTracer);
+
+        TracingConfig config = new TracingConfig();
+        observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig()
+                .observationHandler(new FirstMatchingCompositeObservationHandler(
+                        new PropagatingSenderTracingObservationHandler<>(tracer, propagator),
+                        new DefaultTracingObservationHandler(tracer)))
+                .observationPredicate(config.skipProbeRequests())
+                .observationPredicate(config.skipOrphanJdbcObservations());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void probeRequests_ShouldNotBeTraced() {
+        request("/api/auth/health/ready").observe(() -> { });
+        request("/actuator/prometheus").observe(() -> { });
+        request("/api/auth/login").observe(() -> { });
+
+        assertEquals(1, spans.getFinishedSpanItems().size());
+    }
+
+    @Test
+    void jdbcObservations_ShouldOnlyBeTracedInsideAnotherObservation() {
+        Observation.createNotStarted("jdbc.query", observationRegistry).observe(() -> { });
+        assertTrue(spans.getFinishedSpanItems().isEmpty());
+
+        request("/api/auth/login").observe(() ->
+                Observation.createNotStarted("jdbc.query", observationRegistry).observe(() -> { }));
+
+        List<SpanData> finished = spans.getFinishedSpanItems();
+        assertEquals(2, finished.size());
+        SpanData query = finished.get(0);
+        SpanData login = finished.get(1);
+        assertEquals(login.getTraceId(), query.getTraceId());
+        assertEquals(login.getSpanId(), query.getParentSpanId());
+    }
+
+    @Test
+    void rabbitPublish_ShouldPropagateTraceContextInHeaders() throws Exception {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        Connection connection = mock(Connection.class);
+        Channel channel = mock(Channel.class);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createChannel(false)).thenReturn(channel);
+        RabbitTemplate rabbitTemplate = new RabbitConfig()
+                .rabbitTemplate(connectionFactory, new Jackson2JsonMessageConverter());
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("observationRegistry", observationRegistry);
+        context.refresh();
+        rabbitTemplate.setApplicationContext(context);
+
+        UserEvent event = new UserEvent();
+        event.setEventType("login");
+        request("/api/auth/login").observe(() ->
+                rabbitTemplate.convertAndSend(RabbitConfig.USER_EVENTS_EXCHANGE, "user.login", event));
+
+        ArgumentCaptor<AMQP.BasicProperties> properties = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+        verify(channel).basicPublish(eq(RabbitConfig.USER_EVENTS_EXCHANGE), eq("user.login"), anyBoolean(),
+                properties.capture(), any(byte[].class));
+        SpanData login = spans.getFinishedSpanItems().stream()
+                .filter(span -> span.getParentSpanContext().getSpanId().equals("0000000000000000"))
+                .findFirst().orElseThrow();
+        String traceparent = String.valueOf(properties.getValue().getHeaders().get("traceparent"));
+        assertTrue(traceparent.startsWith("00-" + login.getTraceId() + "-"), traceparent);
+        assertEquals(2, spans.getFinishedSpanItems().size());
+    }
+
+    private Observation request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        ServerRequestObservationContext context =
+                new ServerRequestObservationContext(request, new MockHttpServletResponse());
+        return Observation.createNotStarted("http.server.requests", () -> context, observationRegistry);
+    }
+}
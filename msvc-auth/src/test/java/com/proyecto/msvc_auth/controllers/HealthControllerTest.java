@@ -0,0 +1,53 @@
+package com.proyecto.msvc_auth.controllers;
+
+import com.proyecto.msvc_auth.util.ReadinessChecker;
+import com.proyecto.msvc_auth.util.ReadinessChecker.Readiness;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class HealthControllerTest {
+
+    private final ReadinessChecker readinessChecker = mock(ReadinessChecker.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new HealthController(readinessChecker)).build();
+    }
+
+    @Test
+    void readinessCheck_ShouldReturnOk_WhenDependenciesAreUp() throws Exception {
+        when(readinessChecker.readiness()).thenReturn(Readiness.READY);
+
+        mockMvc.perform(get("/api/auth/health/ready"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value("ok"))
+                .andExpect(jsonPath("$.message").value("Ready"));
+    }
+
+    @Test
+    void readinessCheck_ShouldReturn503_WhenDatabaseIsDown() throws Exception {
+        when(readinessChecker.readiness()).thenReturn(Readiness.DATABASE_DOWN);
+
+        mockMvc.perform(get("/api/auth/health/ready"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("unavailable"))
+                .andExpect(jsonPath("$.message").value("PostgreSQL no disponible"));
+    }
+
+    @Test
+    void livenessCheck_ShouldNotDependOnReadiness() throws Exception {
+        mockMvc.perform(get("/api/auth/health/live"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Live"));
+        verifyNoInteractions(readinessChecker);
+    }
+}
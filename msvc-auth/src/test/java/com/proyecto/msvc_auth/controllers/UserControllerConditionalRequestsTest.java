@@ -0,0 +1,198 @@
+package com.proyecto.msvc_auth.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto.msvc_auth.DTO.UserUpdateRequest;
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.controllers.error.RestControllerAdvisor;
+import com.proyecto.msvc_auth.exceptions.UserNotFoundException;
+import com.proyecto.msvc_auth.models.CountMode;
+import com.proyecto.msvc_auth.models.ListingPage;
+import com.proyecto.msvc_auth.models.UserSummary;
+import com.proyecto.msvc_auth.services.UserService;
+import com.proyecto.msvc_auth.util.RabbitMQLogger;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ETags y peticiones condicionales de usuarios (If-None-Match en los GET, If-Match en el PATCH),
+ * sin contexto de Spring.
+ */
+class UserControllerConditionalRequestsTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockMvc mockMvc;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserController(userService, mock(RabbitMQLogger.class)))
+                .setControllerAdvice(new RestControllerAdvisor())
+                .build();
+        user = new UserEntity();
+        user.setId(1L);
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setAuthorities(Set.of(Role.USER));
+        user.setVersion(3L);
+    }
+
+    @Test
+    void getUserById_ShouldReturnStrongETagFromVersion() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+
+        mockMvc.perform(get("/api/auth/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(jsonPath("$.username").value("testuser"));
+    }
+
+    @Test
+    void getUserById_ShouldReturn304WithoutLoadingUser_WhenVersionMatches() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/auth/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(content().string(""));
+        verify(userService, never()).getUserById(anyLong());
+    }
+
+    @Test
+    void getUserById_ShouldReturnUser_WhenVersionChanged() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(Optional.of(3L));
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+
+        mockMvc.perform(get("/api/auth/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""));
+    }
+
+    @Test
+    void getUserById_ShouldReturn404_WhenRevalidatingDeletedUser() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/auth/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnWeakETagThatChangesWithVersions() throws Exception {
+        when(userService.getAllUsersFiltered(any(), isNull(), isNull()))
+                .thenReturn(new PageImpl<>(List.of(summary(3L)), PageRequest.of(0, 10), 1));
+
+        String etag = mockMvc.perform(get("/api/auth/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/auth/users").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        when(userService.getAllUsersFiltered(any(), isNull(), isNull()))
+                .thenReturn(new PageImpl<>(List.of(summary(4L)), PageRequest.of(0, 10), 1));
+        mockMvc.perform(get("/api/auth/users").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.startsWith("W/\"")));
+    }
+
+    @Test
+    void getAllUsers_WithoutCount_ShouldOmitTotalsAndNeverExposePassword() throws Exception {
+        when(userService.getUsersListing(any(), isNull(), isNull(), eq(CountMode.NONE)))
+                .thenReturn(new ListingPage<>(List.of(summary(3L)), 0, 10, true, null, false));
+
+        mockMvc.perform(get("/api/auth/users").param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("testuser"))
+                .andExpect(jsonPath("$.content[0].password").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalExact").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+    }
+
+    @Test
+    void patchUser_ShouldPassVersionFromIfMatchAndReturnNewETag() throws Exception {
+        UserEntity updated = new UserEntity();
+        updated.setId(1L);
+        updated.setFirstName("Nuevo");
+        updated.setVersion(4L);
+        when(userService.updateUser(eq(1L), any(UserUpdateRequest.class), eq(3L))).thenReturn(updated);
+
+        mockMvc.perform(patch("/api/auth/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest("Nuevo"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(jsonPath("$.firstName").value("Nuevo"));
+    }
+
+    @Test
+    void patchUser_ShouldReturn412_WhenUserChangedSinceRead() throws Exception {
+        when(userService.updateUser(eq(1L), any(UserUpdateRequest.class), eq(3L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(UserEntity.class, 1L));
+
+        mockMvc.perform(patch("/api/auth/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest("Nuevo"))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchUser_ShouldRejectMissingOrWeakOrForeignETags() throws Exception {
+        String body = objectMapper.writeValueAsString(updateRequest("Nuevo"));
+
+        mockMvc.perform(patch("/api/auth/users/1").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(patch("/api/auth/users/1").header(HttpHeaders.IF_MATCH, "W/\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/auth/users/1").header(HttpHeaders.IF_MATCH, "\"2-3\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+        verify(userService, never()).updateUser(anyLong(), any(), any());
+    }
+
+    @Test
+    void putUser_ShouldReturn404WithoutPreviousLookup_WhenUserNotExists() throws Exception {
+        when(userService.updateUser(eq(9L), any(UserUpdateRequest.class)))
+                .thenThrow(new UserNotFoundException("Usuario no encontrado con ID: 9"));
+
+        mockMvc.perform(put("/api/auth/users/9")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest("Nuevo"))))
+                .andExpect(status().isNotFound());
+        verify(userService, never()).getUserById(anyLong());
+    }
+
+    private static UserUpdateRequest updateRequest(String firstName) {
+        UserUpdateRequest request = new UserUpdateRequest();
+        request.setFirstName(firstName);
+        return request;
+    }
+
+    private static UserSummary summary(long version) {
+        return new UserSummary(1L, "testuser", "test@example.com", null, null, version, Set.of(Role.USER));
+    }
+}
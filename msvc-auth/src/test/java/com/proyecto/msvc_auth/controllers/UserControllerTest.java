@@ -4,11 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.proyecto.msvc_auth.DTO.AuthResponse;
 import com.proyecto.msvc_auth.DTO.LoginRequest;
 import com.proyecto.msvc_auth.DTO.UserRegistrationRequest;
+import com.proyecto.msvc_auth.DTO.UserResponse;
 import com.proyecto.msvc_auth.DTO.UserUpdateRequest;
 import com.proyecto.msvc_auth.Entity.Role;
 import com.proyecto.msvc_auth.Entity.UserEntity;
 import com.proyecto.msvc_auth.exceptions.InvalidCredentialsException;
 import com.proyecto.msvc_auth.exceptions.UserAlreadyExistException;
+import com.proyecto.msvc_auth.exceptions.UserNotFoundException;
+import com.proyecto.msvc_auth.models.UserSummary;
 import com.proyecto.msvc_auth.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +29,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.*;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -103,7 +107,7 @@ class UserControllerTest {
         // Setup auth response
         authResponse = new AuthResponse();
         authResponse.setToken("mock-jwt-token");
-        authResponse.setUser(testUser);
+        authResponse.setUser(UserResponse.from(testUser));
     }
 
     // Tests de registro de usuario
@@ -176,8 +180,8 @@ class UserControllerTest {
     @WithMockUser(authorities = "ADMIN")
     void getAllUsers_ShouldReturn200_WhenValidRequest() throws Exception {
         // Given
-        List<UserEntity> users = Arrays.asList(testUser, adminUser);
-        Page<UserEntity> userPage = new PageImpl<>(users, PageRequest.of(0, 10), 2);
+        List<UserSummary> users = Arrays.asList(summaryOf(testUser), summaryOf(adminUser));
+        Page<UserSummary> userPage = new PageImpl<>(users, PageRequest.of(0, 10), 2);
         when(userService.getAllUsersFiltered(any(), eq(null), eq(null))).thenReturn(userPage);
 
         // When & Then
@@ -196,8 +200,8 @@ class UserControllerTest {
     @WithMockUser(authorities = "ADMIN")
     void getAllUsers_ShouldReturn200_WithFilters() throws Exception {
         // Given
-        List<UserEntity> users = Collections.singletonList(testUser);
-        Page<UserEntity> userPage = new PageImpl<>(users, PageRequest.of(0, 10), 1);
+        List<UserSummary> users = Collections.singletonList(summaryOf(testUser));
+        Page<UserSummary> userPage = new PageImpl<>(users, PageRequest.of(0, 10), 1);
         when(userService.getAllUsersFiltered(any(), eq("Test"), eq("User"))).thenReturn(userPage);
 
         // When & Then
@@ -294,6 +298,19 @@ class UserControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void deleteUser_ShouldReturn404_WhenUserNotFound() throws Exception {
+        // Given
+        doThrow(new UserNotFoundException("Usuario no encontrado con ID: 999")).when(userService).deleteUser(999L);
+
+        // When & Then
+        mockMvc.perform(delete("/api/users/999")
+                .with(csrf()))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(authorities = "USER")
     void deleteUser_ShouldReturn403_WhenNotAdmin() throws Exception {
@@ -309,8 +326,8 @@ class UserControllerTest {
     @WithMockUser(authorities = "ADMIN")
     void searchUsers_ShouldReturn200_WhenValidRequest() throws Exception {
         // Given
-        List<UserEntity> users = Collections.singletonList(testUser);
-        Page<UserEntity> userPage = new PageImpl<>(users, PageRequest.of(0, 10), 1);
+        List<UserSummary> users = Collections.singletonList(summaryOf(testUser));
+        Page<UserSummary> userPage = new PageImpl<>(users, PageRequest.of(0, 10), 1);
         when(userService.searchUsers(eq("test"), any())).thenReturn(userPage);
 
         // When & Then
@@ -434,4 +451,9 @@ class UserControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk());
     }
+
+    private static UserSummary summaryOf(UserEntity user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getVersion(), user.getAuthorities());
+    }
 }
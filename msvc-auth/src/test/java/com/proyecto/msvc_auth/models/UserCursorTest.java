@@ -0,0 +1,36 @@
+package com.proyecto.msvc_auth.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCursorTest {
+
+    @Test
+    void encode_ShouldRoundTrip_WhenKeyContainsSeparator() {
+        // Given
+        UserCursor cursor = new UserCursor(UserCursor.SORT_USERNAME, "user:with:colons", 42L);
+
+        // When
+        UserCursor decoded = UserCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void encode_ShouldBeUrlSafe() {
+        // When
+        String encoded = new UserCursor(UserCursor.SORT_USERNAME, "ñandú?&=", 7L).encode();
+
+        // Then
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_ShouldThrowException_WhenCursorIsMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.decode(new UserCursor("email", "x", 1L).encode()));
+        assertThrows(IllegalArgumentException.class, () -> UserCursor.decode("aWQ6YWJjOg"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.proyecto.msvc_auth.repository;
+
+import com.proyecto.msvc_auth.Entity.PasswordResetToken;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class PasswordTokenRepositoryTest {
+
+    @Autowired
+    private PasswordTokenRepository tokenRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            tokenRepository.save(new PasswordResetToken(null, UUID.randomUUID().toString(), (long) i, now.minusHours(i)));
+        }
+        for (int i = 1; i <= 3; i++) {
+            tokenRepository.save(new PasswordResetToken(null, UUID.randomUUID().toString(), 10L + i, now.plusHours(i)));
+        }
+        tokenRepository.flush();
+    }
+
+    @Test
+    void deleteExpiredBatch_ShouldDeleteAtMostLimitExpiredTokens() {
+        assertEquals(2, tokenRepository.deleteExpiredBatch(now, 2));
+        assertEquals(2, tokenRepository.deleteExpiredBatch(now, 2));
+        assertEquals(1, tokenRepository.deleteExpiredBatch(now, 2));
+        assertEquals(0, tokenRepository.deleteExpiredBatch(now, 2));
+
+        assertEquals(3, tokenRepository.count());
+        assertTrue(tokenRepository.findAll().stream().noneMatch(PasswordResetToken::isExpired));
+    }
+
+    @Test
+    void upsertForUser_ShouldCreateTokenOrReplaceTheExistingOne() {
+        tokenRepository.upsertForUser(20L, "first", now.plusHours(1));
+        tokenRepository.upsertForUser(20L, "second", now.plusHours(2));
+        entityManager.clear();
+
+        assertTrue(tokenRepository.findByToken("first").isEmpty());
+        PasswordResetToken token = tokenRepository.findByToken("second").orElseThrow();
+        assertEquals(20L, token.getUserId());
+        assertEquals(1, tokenRepository.findByUserId(20L).size());
+    }
+
+    @Test
+    void consume_ShouldDeleteOnlyAValidTokenOfTheUser() {
+        tokenRepository.upsertForUser(20L, "token", now.plusHours(1));
+        tokenRepository.upsertForUser(21L, "expired", now.minusMinutes(1));
+
+        assertEquals(0, tokenRepository.consume("token", 99L, now));
+        assertEquals(0, tokenRepository.consume("expired", 21L, now));
+        assertEquals(1, tokenRepository.consume("token", 20L, now));
+        assertEquals(0, tokenRepository.consume("token", 20L, now));
+    }
+}
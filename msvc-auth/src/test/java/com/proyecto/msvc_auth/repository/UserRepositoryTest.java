@@ -0,0 +1,105 @@
+package com.proyecto.msvc_auth.repository;
+
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.models.UserRoleRow;
+import com.proyecto.msvc_auth.models.UserSummary;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserRepositoryTest {
+
+    private static final int USERS = 60;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            UserEntity user = new UserEntity();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setMobileNumber("+57300" + i);
+            user.setPassword("encoded-password");
+            user.setFirstName("Nombre" + i);
+            user.setLastName("Apellido" + i);
+            user.setAuthorities(i % 2 == 0 ? Set.of(Role.USER) : Set.of(Role.USER, Role.ADMIN));
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findSummaries_ShouldSelectOnlyListingColumns_AndLoadRolesInOneQuery() {
+        // When
+        Page<UserSummary> page = userRepository.findSummaries(PageRequest.of(0, 50));
+        List<UserRoleRow> roles = userRepository.findRolesByUserIds(page.getContent().stream().map(UserSummary::id).toList());
+
+        // Then: página + count + un IN de roles, sin entidades gestionadas
+        assertEquals(50, page.getNumberOfElements());
+        assertEquals(USERS, page.getTotalElements());
+        assertEquals(75, roles.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void sliceAll_ShouldLoadSliceWithoutCount() {
+        // When
+        Slice<UserSummary> slice = userRepository.sliceAll(PageRequest.of(1, 25));
+        userRepository.findRolesByUserIds(slice.getContent().stream().map(UserSummary::id).toList());
+
+        // Then: página + un lote de roles
+        assertEquals(25, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void saveAndFlush_ShouldRejectStaleCopy_WhenAnotherEditWasCommittedFirst() {
+        // Given: dos administradores leen la misma versión
+        UserEntity first = userRepository.findByUsername("user1").orElseThrow();
+        entityManager.detach(first);
+        UserEntity second = userRepository.findByUsername("user1").orElseThrow();
+        entityManager.detach(second);
+
+        // When
+        first.setFirstName("Primero");
+        UserEntity saved = userRepository.saveAndFlush(first);
+        second.setLastName("Segundo");
+
+        // Then
+        assertEquals(second.getVersion() + 1, saved.getVersion());
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> userRepository.saveAndFlush(second));
+    }
+}
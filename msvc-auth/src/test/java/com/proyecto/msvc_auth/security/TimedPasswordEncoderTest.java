@@ -0,0 +1,34 @@
+package com.proyecto.msvc_auth.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TimedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Coste mínimo de BCrypt para que el test sea rápido
+        passwordEncoder = new TimedPasswordEncoder(new BCryptPasswordEncoder(4), meterRegistry);
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegateAndRecordTimers() {
+        String hash = passwordEncoder.encode("secret");
+
+        assertTrue(passwordEncoder.matches("secret", hash));
+        assertFalse(passwordEncoder.matches("wrong", hash));
+        assertFalse(passwordEncoder.matches("wrong", hash));
+
+        assertEquals(1, meterRegistry.get("auth.password.hash").timer().count());
+        assertEquals(1, meterRegistry.get("auth.password.verify").tag("result", "match").timer().count());
+        assertEquals(2, meterRegistry.get("auth.password.verify").tag("result", "mismatch").timer().count());
+    }
+}
@@ -0,0 +1,96 @@
+package com.proyecto.msvc_auth.services;
+
+import com.proyecto.msvc_auth.models.CacheInvalidation;
+import com.proyecto.msvc_auth.services.impl.CacheInvalidationListener;
+import com.proyecto.msvc_auth.util.CacheInvalidationPublisher;
+import com.proyecto.msvc_auth.util.UserCache;
+import com.proyecto.msvc_auth.util.UserListingCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+class CacheInvalidationListenerTest {
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private UserListingCache userListingCache;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private Connection connection;
+
+    @InjectMocks
+    private CacheInvalidationListener listener;
+
+    @Test
+    void handleInvalidation_ShouldEvictUser_WhenSentByAnotherReplica() {
+        // When
+        listener.handleInvalidation(new CacheInvalidation(CacheInvalidation.USER, "7", "otra-replica"));
+
+        // Then
+        verify(userCache).evictLocal(7L);
+    }
+
+    @Test
+    void handleInvalidation_ShouldIgnoreOwnMessages() {
+        // When
+        listener.handleInvalidation(new CacheInvalidation(CacheInvalidation.USER, "7", CacheInvalidationPublisher.INSTANCE_ID));
+
+        // Then
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    void handleInvalidation_ShouldFlushEverything_WhenTypeIsAll() {
+        // When
+        listener.handleInvalidation(new CacheInvalidation(CacheInvalidation.ALL, null, "otra-replica"));
+
+        // Then
+        verify(userCache).evictAllLocal();
+        verify(userListingCache).invalidateLocal();
+    }
+
+    @Test
+    void handleInvalidation_ShouldInvalidateListingsOnly_WhenTypeIsUserListings() {
+        // When
+        listener.handleInvalidation(new CacheInvalidation(CacheInvalidation.USER_LISTINGS, "", "otra-replica"));
+
+        // Then
+        verify(userListingCache).invalidateLocal();
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    void handleInvalidation_ShouldIgnoreMalformedKeys() {
+        // When
+        listener.handleInvalidation(new CacheInvalidation(CacheInvalidation.USER, "abc", "otra-replica"));
+
+        // Then
+        verifyNoInteractions(userCache);
+    }
+
+    @Test
+    void onCreate_ShouldFlushCaches_OnlyWhenReconnecting() {
+        // When
+        listener.onCreate(connection);
+        verifyNoInteractions(userCache);
+        listener.onCreate(connection);
+
+        // Then
+        verify(userCache).evictAllLocal();
+        verify(userListingCache).invalidateLocal();
+    }
+}
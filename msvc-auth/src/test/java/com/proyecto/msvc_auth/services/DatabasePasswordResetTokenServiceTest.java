@@ -0,0 +1,107 @@
+package com.proyecto.msvc_auth.services;
+
+import com.proyecto.msvc_auth.Entity.PasswordResetToken;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.repository.PasswordTokenRepository;
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.services.impl.DatabasePasswordResetTokenService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.ott.InvalidOneTimeTokenException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabasePasswordResetTokenServiceTest {
+
+    @Mock
+    private PasswordTokenRepository tokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @InjectMocks
+    private DatabasePasswordResetTokenService tokenService;
+
+    @Test
+    void issue_ShouldUpsertTheUsersToken() {
+        // Given
+        UserEntity user = new UserEntity();
+        user.setId(1L);
+        LocalDateTime expiryDate = LocalDateTime.now().plusHours(1);
+
+        // When
+        String token = tokenService.issue(user, expiryDate);
+
+        // Then
+        verify(tokenRepository).upsertForUser(1L, token, expiryDate);
+        verifyNoMoreInteractions(tokenRepository);
+    }
+
+    @Test
+    void redeem_ShouldConsumeTokenAndUpdatePassword_WhenValidToken() {
+        // Given
+        when(tokenRepository.consume(eq("valid-token"), eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(passwordEncoder.encode("newpassword")).thenReturn("encoded-new-password");
+        when(userRepository.updatePassword(1L, "encoded-new-password")).thenReturn(1);
+
+        // When
+        tokenService.redeem(1L, "valid-token", "newpassword");
+
+        // Then
+        verify(tokenRepository, never()).findByToken(anyString());
+        verify(userRepository).updatePassword(1L, "encoded-new-password");
+    }
+
+    @Test
+    void redeem_ShouldThrowException_WhenTokenExpired() {
+        // Given
+        PasswordResetToken token = new PasswordResetToken(5L, "expired-token", 1L, LocalDateTime.now().minusMinutes(1));
+        when(tokenRepository.consume(eq("expired-token"), eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(tokenRepository.findByToken("expired-token")).thenReturn(Optional.of(token));
+
+        // When & Then
+        InvalidOneTimeTokenException exception = assertThrows(InvalidOneTimeTokenException.class,
+                () -> tokenService.redeem(1L, "expired-token", "newpassword"));
+        assertEquals("El token ha expirado", exception.getMessage());
+        verifyNoInteractions(passwordEncoder, userRepository);
+    }
+
+    @Test
+    void redeem_ShouldThrowException_WhenTokenBelongsToAnotherUser() {
+        // Given
+        PasswordResetToken token = new PasswordResetToken(5L, "other-token", 2L, LocalDateTime.now().plusHours(1));
+        when(tokenRepository.consume(eq("other-token"), eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(tokenRepository.findByToken("other-token")).thenReturn(Optional.of(token));
+
+        // When & Then
+        InvalidOneTimeTokenException exception = assertThrows(InvalidOneTimeTokenException.class,
+                () -> tokenService.redeem(1L, "other-token", "newpassword"));
+        assertEquals("El token no corresponde al usuario", exception.getMessage());
+        verifyNoInteractions(passwordEncoder, userRepository);
+    }
+
+    @Test
+    void redeem_ShouldThrowException_WhenTokenDoesNotExist() {
+        // Given
+        when(tokenRepository.consume(eq("unknown"), eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(tokenRepository.findByToken("unknown")).thenReturn(Optional.empty());
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> tokenService.redeem(1L, "unknown", "newpassword"));
+        assertEquals("Token inválido", exception.getMessage());
+    }
+}
@@ -0,0 +1,71 @@
+package com.proyecto.msvc_auth.services;
+
+import com.proyecto.msvc_auth.config.RabbitConfig;
+import com.proyecto.msvc_auth.services.impl.DeadLetterServiceImpl;
+import com.proyecto.msvc_auth.util.UserEventRetryRecoverer;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadLetterServiceTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private Channel channel;
+
+    @InjectMocks
+    private DeadLetterServiceImpl deadLetterService;
+
+    @BeforeEach
+    void setUp() {
+        when(rabbitTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<ChannelCallback<?>>getArgument(0).doInRabbit(channel));
+    }
+
+    @Test
+    void replayDeadLetters_ShouldParkMessagesWithoutOriginalQueue_AndKeepReplaying() throws Exception {
+        // Given - el primero de la DLQ no tiene cola de origen
+        GetResponse orphan = deadLetter(1, Map.of());
+        GetResponse replayable = deadLetter(2, Map.of(
+                UserEventRetryRecoverer.ORIGINAL_QUEUE_HEADER, "notifications.queue",
+                UserEventRetryRecoverer.RETRY_ATTEMPT_HEADER, 3));
+        when(channel.basicGet(RabbitConfig.USER_EVENTS_DLQ, false)).thenReturn(orphan, replayable, null);
+
+        // When
+        int replayed = deadLetterService.replayDeadLetters(10);
+
+        // Then
+        assertEquals(1, replayed);
+        verify(channel).basicPublish(eq(""), eq(RabbitConfig.USER_EVENTS_PARKING_QUEUE), any(), any());
+        verify(channel).basicPublish(eq(""), eq("notifications.queue"),
+                argThat(props -> !props.getHeaders().containsKey(UserEventRetryRecoverer.RETRY_ATTEMPT_HEADER)),
+                any());
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(2, false);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    private static GetResponse deadLetter(long deliveryTag, Map<String, Object> headers) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().headers(headers).build();
+        Envelope envelope = new Envelope(deliveryTag, false, RabbitConfig.USER_EVENTS_DLX, RabbitConfig.USER_EVENTS_DLQ);
+        return new GetResponse(envelope, properties, "{}".getBytes(), 0);
+    }
+}
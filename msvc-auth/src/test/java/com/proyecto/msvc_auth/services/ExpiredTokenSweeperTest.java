@@ -0,0 +1,77 @@
+package com.proyecto.msvc_auth.services;
+
+import com.proyecto.msvc_auth.repository.PasswordTokenRepository;
+import com.proyecto.msvc_auth.services.impl.ExpiredTokenSweeper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredTokenSweeperTest {
+
+    @Mock
+    private PasswordTokenRepository tokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExpiredTokenSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ExpiredTokenSweeper(tokenRepository, meterRegistry);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 100);
+        ReflectionTestUtils.setField(sweeper, "maxDuration", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void sweep_ShouldDeleteInBatchesUntilABatchIsNotFull() {
+        // Given
+        when(tokenRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 7);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(tokenRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), eq(100));
+        assertEquals(207.0, meterRegistry.get("password.reset.tokens.swept").counter().count());
+        assertEquals(1, meterRegistry.get("password.reset.tokens.sweep").timer().count());
+    }
+
+    @Test
+    void sweep_ShouldStopWhenMaxDurationIsExceeded() {
+        // Given
+        ReflectionTestUtils.setField(sweeper, "maxDuration", Duration.ZERO);
+        when(tokenRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(100))).thenReturn(100);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(tokenRepository, times(1)).deleteExpiredBatch(any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    void sweep_ShouldDoNothing_WhenNoTokensExpired() {
+        // Given
+        when(tokenRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(100))).thenReturn(0);
+
+        // When
+        sweeper.sweep();
+
+        // Then
+        verify(tokenRepository, times(1)).deleteExpiredBatch(any(LocalDateTime.class), eq(100));
+        assertEquals(0.0, meterRegistry.get("password.reset.tokens.swept").counter().count());
+    }
+}
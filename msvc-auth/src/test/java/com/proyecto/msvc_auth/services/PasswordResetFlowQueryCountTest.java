@@ -0,0 +1,139 @@
+package com.proyecto.msvc_auth.services;
+
+import com.proyecto.msvc_auth.Entity.PasswordResetToken;
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.models.UserEvent;
+import com.proyecto.msvc_auth.repository.PasswordTokenRepository;
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.security.JwtUtils;
+import com.proyecto.msvc_auth.services.impl.DatabasePasswordResetTokenService;
+import com.proyecto.msvc_auth.services.impl.UserServiceImpl;
+import com.proyecto.msvc_auth.util.CacheInvalidationPublisher;
+import com.proyecto.msvc_auth.util.UserCache;
+import com.proyecto.msvc_auth.util.UserListingCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Sentencias SQL por petición en los flujos de recuperación y restablecimiento de contraseña,
+ * contadas con las estadísticas de Hibernate sobre H2.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PasswordResetFlowQueryCountTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordTokenRepository tokenRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final UserEventService userEventService = mock(UserEventService.class);
+    private UserServiceImpl userService;
+    private Statistics statistics;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        UserCache userCache = new UserCache(new SimpleMeterRegistry(), mock(CacheInvalidationPublisher.class), 100,
+                Duration.ofMinutes(5));
+        UserListingCache userListingCache = new UserListingCache(new SimpleMeterRegistry(),
+                mock(CacheInvalidationPublisher.class), DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+        PasswordResetTokenService tokenService =
+                new DatabasePasswordResetTokenService(tokenRepository, userRepository, passwordEncoder);
+        userService = new UserServiceImpl(userRepository, tokenRepository, tokenService, passwordEncoder,
+                mock(AuthenticationManager.class), userEventService, mock(UserCountService.class), userCache,
+                userListingCache, mock(JwtUtils.class), transactionManager);
+
+        user = new UserEntity();
+        user.setUsername("ana");
+        user.setEmail("ana@example.com");
+        user.setMobileNumber("+5731");
+        user.setPassword(passwordEncoder.encode("password123"));
+        user.setAuthorities(Set.of(Role.USER));
+        entityManager.persist(user);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void requestPasswordRecovery_ShouldUseOneStatementBesidesTheUserLookup() {
+        userService.requestPasswordRecovery("ana@example.com");
+        long firstRequest = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        userService.requestPasswordRecovery("ana@example.com");
+        entityManager.clear();
+
+        // Primera petición: usuario + sus roles + upsert; con el usuario en caché, solo el upsert
+        assertEquals(3, firstRequest);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, tokenRepository.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void resetPasswordForUser_ShouldConsumeTokenAndUpdatePasswordWithTwoStatements() {
+        userService.requestPasswordRecovery("ana@example.com");
+        String token = recoveryToken();
+        statistics.clear();
+
+        userService.resetPasswordForUser(user.getId(), token, "nuevaPassword1");
+
+        // Borrado del token + update del hash; el usuario del evento sale de la caché
+        assertEquals(2, statistics.getPrepareStatementCount());
+        entityManager.clear();
+        assertTrue(tokenRepository.findByToken(token).isEmpty());
+        assertTrue(passwordEncoder.matches("nuevaPassword1",
+                userRepository.findById(user.getId()).orElseThrow().getPassword()));
+    }
+
+    @Test
+    void resetPasswordForUser_ShouldNotReuseAConsumedToken() {
+        userService.requestPasswordRecovery("ana@example.com");
+        String token = recoveryToken();
+        userService.resetPasswordForUser(user.getId(), token, "nuevaPassword1");
+
+        assertThrows(RuntimeException.class,
+                () -> userService.resetPasswordForUser(user.getId(), token, "otraPassword2"));
+    }
+
+    private String recoveryToken() {
+        ArgumentCaptor<UserEvent> event = ArgumentCaptor.forClass(UserEvent.class);
+        verify(userEventService, atLeastOnce()).publishEvent(event.capture());
+        PasswordResetToken stored = tokenRepository.findByUserId(user.getId()).get(0);
+        assertEquals(stored.getToken(), event.getValue().getAdditionalData().get("token"));
+        return stored.getToken();
+    }
+}
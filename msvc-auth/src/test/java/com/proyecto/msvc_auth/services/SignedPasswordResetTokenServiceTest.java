@@ -0,0 +1,139 @@
+package com.proyecto.msvc_auth.services;
+
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.services.impl.SignedPasswordResetTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.ott.InvalidOneTimeTokenException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SignedPasswordResetTokenServiceTest {
+
+    private static final String SECRET = "cGFzc3dvcmQtcmVzZXQtdGVzdC1zaWduaW5nLWtleS0zMmJ5dGVzIQ==";
+    private static final String OTHER_SECRET = "b3RyYS1jbGF2ZS1kZS1maXJtYS1wYXJhLWxvcy10ZXN0cy0zMmJ5dGVz";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private SignedPasswordResetTokenService tokenService;
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new SignedPasswordResetTokenService(userRepository, passwordEncoder, SECRET);
+        user = new UserEntity();
+        user.setId(1L);
+        user.setPassword("current-hash");
+    }
+
+    @Test
+    void issue_ShouldNotTouchTheDatabase() {
+        // When
+        String token = tokenService.issue(user, LocalDateTime.now().plusHours(1));
+
+        // Then
+        assertNotNull(token);
+        assertFalse(token.contains("current-hash"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void redeem_ShouldUpdatePasswordOnlyIfItHasNotChanged_WhenValidToken() {
+        // Given
+        String token = tokenService.issue(user, LocalDateTime.now().plusHours(1));
+        when(userRepository.findPasswordById(1L)).thenReturn(Optional.of("current-hash"));
+        when(passwordEncoder.encode("newpassword")).thenReturn("new-hash");
+        when(userRepository.updatePasswordIfUnchanged(1L, "current-hash", "new-hash")).thenReturn(1);
+
+        // When
+        tokenService.redeem(1L, token, "newpassword");
+
+        // Then
+        verify(userRepository).updatePasswordIfUnchanged(1L, "current-hash", "new-hash");
+    }
+
+    @Test
+    void redeem_ShouldRejectToken_WhenPasswordAlreadyChanged() {
+        // Given
+        String token = tokenService.issue(user, LocalDateTime.now().plusHours(1));
+        when(userRepository.findPasswordById(1L)).thenReturn(Optional.of("new-hash"));
+
+        // When & Then
+        InvalidOneTimeTokenException exception = assertThrows(InvalidOneTimeTokenException.class,
+                () -> tokenService.redeem(1L, token, "newpassword"));
+        assertEquals("El token ya fue utilizado", exception.getMessage());
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void redeem_ShouldRejectToken_WhenAConcurrentResetWonTheRace() {
+        // Given
+        String token = tokenService.issue(user, LocalDateTime.now().plusHours(1));
+        when(userRepository.findPasswordById(1L)).thenReturn(Optional.of("current-hash"));
+        when(passwordEncoder.encode("newpassword")).thenReturn("new-hash");
+        when(userRepository.updatePasswordIfUnchanged(1L, "current-hash", "new-hash")).thenReturn(0);
+
+        // When & Then
+        assertThrows(InvalidOneTimeTokenException.class, () -> tokenService.redeem(1L, token, "newpassword"));
+    }
+
+    @Test
+    void redeem_ShouldRejectExpiredToken() {
+        // Given
+        String token = tokenService.issue(user, LocalDateTime.now().minusMinutes(1));
+
+        // When & Then
+        InvalidOneTimeTokenException exception = assertThrows(InvalidOneTimeTokenException.class,
+                () -> tokenService.redeem(1L, token, "newpassword"));
+        assertEquals("El token ha expirado", exception.getMessage());
+        verifyNoInteractions(userRepository, passwordEncoder);
+    }
+
+    @Test
+    void redeem_ShouldRejectTokenOfAnotherUser() {
+        // Given
+        String token = tokenService.issue(user, LocalDateTime.now().plusHours(1));
+
+        // When & Then
+        InvalidOneTimeTokenException exception = assertThrows(InvalidOneTimeTokenException.class,
+                () -> tokenService.redeem(2L, token, "newpassword"));
+        assertEquals("El token no corresponde al usuario", exception.getMessage());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void redeem_ShouldRejectTokensSignedWithAnotherKeyOrTampered() {
+        // Given
+        String foreign = new SignedPasswordResetTokenService(userRepository, passwordEncoder, OTHER_SECRET)
+                .issue(user, LocalDateTime.now().plusHours(1));
+        String token = tokenService.issue(user, LocalDateTime.now().plusHours(1));
+        // Un carácter central de la firma: los últimos pueden llevar solo bits de relleno y decodificar igual
+        int middle = token.lastIndexOf('.') + (token.length() - token.lastIndexOf('.')) / 2;
+        char replacement = token.charAt(middle) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, middle) + replacement + token.substring(middle + 1);
+
+        // When & Then
+        assertEquals("Token inválido", assertThrows(RuntimeException.class,
+                () -> tokenService.redeem(1L, foreign, "newpassword")).getMessage());
+        assertEquals("Token inválido", assertThrows(RuntimeException.class,
+                () -> tokenService.redeem(1L, tampered, "newpassword")).getMessage());
+        assertEquals("Token inválido", assertThrows(RuntimeException.class,
+                () -> tokenService.redeem(1L, "not-a-token", "newpassword")).getMessage());
+        verifyNoInteractions(userRepository);
+    }
+}
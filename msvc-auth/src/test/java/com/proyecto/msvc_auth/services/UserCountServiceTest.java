@@ -0,0 +1,96 @@
+package com.proyecto.msvc_auth.services;
+
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.services.impl.UserCountServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+class UserCountServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private UserCountServiceImpl userCountService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userCountService, "cacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(userCountService, "cacheMaxEntries", 100L);
+        ReflectionTestUtils.invokeMethod(userCountService, "initCache");
+    }
+
+    @Test
+    void cachedCount_ShouldQueryOnce_ForEquivalentFilters() {
+        // Given
+        when(userRepository.countByFirstNameMatching("%ana%")).thenReturn(5L);
+
+        // When
+        long first = userCountService.cachedCount("Ana", null);
+        long second = userCountService.cachedCount(" ana ", "");
+
+        // Then
+        assertEquals(5L, first);
+        assertEquals(5L, second);
+        verify(userRepository, times(1)).countByFirstNameMatching("%ana%");
+    }
+
+    @Test
+    void cachedCount_ShouldCountWholeTable_WhenNoFilters() {
+        // Given
+        when(userRepository.count()).thenReturn(42L);
+
+        // When & Then
+        assertEquals(42L, userCountService.cachedCount(null, null));
+    }
+
+    @Test
+    void estimatedCount_ShouldUsePlannerStatistics_WhenNoFilters() {
+        // Given
+        when(userRepository.estimateRowCount()).thenReturn(1_000_000L);
+
+        // When & Then
+        assertEquals(OptionalLong.of(1_000_000L), userCountService.estimatedCount(null, null));
+    }
+
+    @Test
+    void estimatedCount_ShouldBeEmpty_WhenTableNeverAnalyzedOrFiltered() {
+        // Given
+        when(userRepository.estimateRowCount()).thenReturn(-1L);
+
+        // When & Then
+        assertTrue(userCountService.estimatedCount(null, null).isEmpty());
+        assertTrue(userCountService.estimatedCount("Ana", null).isEmpty());
+        verify(userRepository, times(1)).estimateRowCount();
+    }
+
+    @Test
+    void estimatedCount_ShouldBeEmpty_WhenDatabaseIsNotPostgres() {
+        // Given
+        when(userRepository.estimateRowCount()).thenThrow(new InvalidDataAccessResourceUsageException("pg_class"));
+
+        // When & Then
+        assertTrue(userCountService.estimatedCount(null, null).isEmpty());
+    }
+}
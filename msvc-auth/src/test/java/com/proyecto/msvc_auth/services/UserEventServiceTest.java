@@ -4,14 +4,18 @@ import com.proyecto.msvc_auth.Entity.Role;
 import com.proyecto.msvc_auth.Entity.UserEntity;
 import com.proyecto.msvc_auth.models.UserEvent;
 import com.proyecto.msvc_auth.services.impl.UserEventServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -30,6 +34,9 @@ class UserEventServiceTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private UserEventServiceImpl userEventService;
 
@@ -326,6 +333,50 @@ class UserEventServiceTest {
         verify(rabbitTemplate, times(1)).convertAndSend(eq("microservices.events"), eq("user."), eq(event));
     }
 
+    @Test
+    void publishEvent_ShouldAlsoPublishToUserPartition_WhenPartitioningEnabled() {
+        // Given
+        ReflectionTestUtils.setField(userEventService, "partitioningEnabled", true);
+        ReflectionTestUtils.setField(userEventService, "partitions", 4);
+        UserEvent event = createUserEvent("user-update", adminUser);
+
+        // When
+        userEventService.publishEvent(event);
+
+        // Then - el evento legacy se mantiene y se añade la copia particionada
+        verify(rabbitTemplate).convertAndSend(eq("microservices.events"), eq("user.user-update"), eq(event));
+        verify(rabbitTemplate).convertAndSend(eq("microservices.events.partitioned"), eq("2"), eq(event));
+    }
+
+    @Test
+    void publishEvent_ShouldRecordLatencyByTypeAndOutcome() {
+        // Given
+        doNothing().doThrow(new RuntimeException("RabbitMQ connection failed"))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        // When
+        userEventService.publishEvent(createUserEvent("login", testUser));
+        userEventService.publishEvent(createUserEvent("login", testUser));
+
+        // Then
+        assertEquals(1, meterRegistry.get("user.events.publish")
+                .tags("type", "login", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("user.events.publish")
+                .tags("type", "login", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void partitionFor_ShouldBeStableForSameUser() {
+        // Given
+        ReflectionTestUtils.setField(userEventService, "partitions", 8);
+
+        // When & Then - mismo usuario, misma partición; sin userId va a la 0
+        assertEquals(userEventService.partitionFor(12345L), userEventService.partitionFor(12345L));
+        assertTrue(userEventService.partitionFor(12345L) >= 0 && userEventService.partitionFor(12345L) < 8);
+        assertTrue(userEventService.partitionFor(-7L) >= 0);
+        assertEquals(0, userEventService.partitionFor(null));
+    }
+
     // Helper method to create UserEvent objects
     private UserEvent createUserEvent(String eventType, UserEntity user) {
         UserEvent event = new UserEvent();
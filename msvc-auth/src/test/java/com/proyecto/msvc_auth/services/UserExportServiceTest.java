@@ -0,0 +1,101 @@
+package com.proyecto.msvc_auth.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto.msvc_auth.DTO.UserResponse;
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.services.impl.UserExportServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class UserExportServiceTest {
+
+    private static final int USERS = 25;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UserExportService userExportService;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            UserEntity user = new UserEntity();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setMobileNumber("+57300" + i);
+            user.setPassword("encoded-password");
+            user.setFirstName("Nombre" + i);
+            user.setLastName("Apellido" + i);
+            user.setAuthorities(i % 2 == 0 ? Set.of(Role.USER) : Set.of(Role.USER, Role.ADMIN));
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        userExportService = new UserExportServiceImpl(userRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void exportUsers_ShouldWriteOneJsonLinePerUserWithRoles() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = userExportService.exportUsers(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(USERS, exported);
+        assertEquals(USERS, lines.length);
+        List<UserResponse> users = List.of(lines).stream().map(this::read).toList();
+        assertEquals("user0", users.get(0).username());
+        assertEquals(Set.of(Role.USER), users.get(0).authorities());
+        assertEquals(Set.of(Role.USER, Role.ADMIN), users.get(1).authorities());
+        assertFalse(lines[0].contains("password"));
+    }
+
+    @Test
+    void exportUsers_ShouldNotKeepExportedEntitiesInThePersistenceContext() throws Exception {
+        userExportService.exportUsers(new ByteArrayOutputStream());
+
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void exportUsers_ShouldStopWhenOutputFails() {
+        OutputStream brokenOutput = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Conexión cerrada por el cliente");
+            }
+        };
+
+        assertThrows(IOException.class, () -> userExportService.exportUsers(brokenOutput));
+    }
+
+    private UserResponse read(String line) {
+        try {
+            return objectMapper.readValue(line, UserResponse.class);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.proyecto.msvc_auth.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import com.proyecto.msvc_auth.models.UserEvent;
+import com.proyecto.msvc_auth.models.UserImportFormat;
+import com.proyecto.msvc_auth.models.UserImportReport;
+import com.proyecto.msvc_auth.repository.UserRepository;
+import com.proyecto.msvc_auth.services.impl.UserImportServiceImpl;
+import com.proyecto.msvc_auth.util.UserListingCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+// Cada bloque se confirma en su propia transacción, como en producción
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportServiceTest {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final UserEventService userEventService = mock(UserEventService.class);
+    private final UserListingCache userListingCache = mock(UserListingCache.class);
+    private ExecutorService executor;
+    private UserImportServiceImpl userImportService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        userImportService = new UserImportServiceImpl(jdbcTemplate, entityManagerFactory, transactionTemplate,
+                passwordEncoder, new ObjectMapper(), userEventService, userListingCache, executor);
+        ReflectionTestUtils.setField(userImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(userImportService, "maxErrors", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importUsers_Ndjson_ShouldInsertUsersWithHashedPasswordAndUserRole() throws Exception {
+        UserImportReport report = importUsers(UserImportFormat.NDJSON,
+                json("ana", "ana@example.com", "+5731", "password123"),
+                json("luis", "luis@example.com", "+5732", "password456"),
+                "",
+                json("eva", "eva@example.com", "+5733", "password789"));
+
+        assertEquals(3, report.total());
+        assertEquals(3, report.imported());
+        assertEquals(0, report.failed());
+        assertTrue(report.errors().isEmpty());
+
+        UserEntity ana = userRepository.findByUsername("ana").orElseThrow();
+        assertTrue(passwordEncoder.matches("password123", ana.getPassword()));
+        assertEquals(Set.of(Role.USER), ana.getAuthorities());
+        assertEquals("Ana", ana.getFirstName());
+        assertEquals(3, userRepository.count());
+    }
+
+    @Test
+    void importUsers_Csv_ShouldAcceptPreHashedPasswordsAndQuotedFields() throws Exception {
+        String hash = passwordEncoder.encode("secreto123");
+        UserImportReport report = importUsers(UserImportFormat.CSV,
+                "username,email,passwordHash,firstName,lastName,mobileNumber",
+                "ana,ana@example.com," + hash + ",\"Ana, María\",\"O\"\"Neil\",+5731");
+
+        assertEquals(1, report.imported());
+        UserEntity ana = userRepository.findByUsername("ana").orElseThrow();
+        assertEquals(hash, ana.getPassword());
+        assertEquals("Ana, María", ana.getFirstName());
+        assertEquals("O\"Neil", ana.getLastName());
+    }
+
+    @Test
+    void importUsers_ShouldReportInvalidAndDuplicatedRowsWithTheirLine() throws Exception {
+        UserEntity existing = new UserEntity();
+        existing.setUsername("existing");
+        existing.setEmail("existing@example.com");
+        existing.setMobileNumber("+5730");
+        existing.setPassword("encoded");
+        userRepository.save(existing);
+
+        UserImportReport report = importUsers(UserImportFormat.NDJSON,
+                json("ana", "ana@example.com", "+5731", "password123"),
+                "{not json",
+                json("ana", "otra@example.com", "+5732", "password123"),
+                json("x", "x@example.com", "+5733", "password123"),
+                json("luis", "existing@example.com", "+5734", "password123"),
+                json("eva", "eva@example.com", "+5735", "corta"));
+
+        assertEquals(6, report.total());
+        assertEquals(1, report.imported());
+        assertEquals(5, report.failed());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L),
+                report.errors().stream().map(UserImportReport.RowError::line).sorted().toList());
+        assertTrue(report.errors().stream()
+                .anyMatch(e -> e.line() == 5 && e.error().equals("El email ya está registrado")));
+        assertEquals(2, userRepository.count());
+    }
+
+    @Test
+    void importUsers_ShouldUseIdsThatDoNotCollideWithHibernateGeneratedOnes() throws Exception {
+        UserEntity saved = new UserEntity();
+        saved.setUsername("saved");
+        saved.setEmail("saved@example.com");
+        saved.setMobileNumber("+5730");
+        saved.setPassword("encoded");
+        userRepository.save(saved);
+
+        UserImportReport report = importUsers(UserImportFormat.NDJSON,
+                json("ana", "ana@example.com", "+5731", "password123"),
+                json("luis", "luis@example.com", "+5732", "password456"),
+                json("eva", "eva@example.com", "+5733", "password789"));
+
+        UserEntity savedAfter = new UserEntity();
+        savedAfter.setUsername("savedAfter");
+        savedAfter.setEmail("savedafter@example.com");
+        savedAfter.setMobileNumber("+5734");
+        savedAfter.setPassword("encoded");
+        userRepository.save(savedAfter);
+
+        assertEquals(3, report.imported());
+        assertEquals(5, userRepository.count());
+    }
+
+    @Test
+    void importUsers_ShouldTruncateErrorsButKeepCountingThem() throws Exception {
+        ReflectionTestUtils.setField(userImportService, "maxErrors", 1);
+
+        UserImportReport report = importUsers(UserImportFormat.NDJSON, "{", "{", "{");
+
+        assertEquals(3, report.failed());
+        assertEquals(1, report.errors().size());
+        assertTrue(report.errorsTruncated());
+    }
+
+    @Test
+    void importUsers_ShouldPublishOneAggregatedEvent() throws Exception {
+        importUsers(UserImportFormat.NDJSON,
+                json("ana", "ana@example.com", "+5731", "password123"),
+                json("luis", "luis@example.com", "+5732", "password456"),
+                json("eva", "eva@example.com", "+5733", "password789"));
+
+        ArgumentCaptor<UserEvent> event = ArgumentCaptor.forClass(UserEvent.class);
+        verify(userEventService, times(1)).publishEvent(event.capture());
+        assertEquals(UserImportServiceImpl.IMPORT_EVENT_TYPE, event.getValue().getEventType());
+        assertEquals(3L, event.getValue().getAdditionalData().get("imported"));
+        assertEquals(0L, event.getValue().getAdditionalData().get("failed"));
+        verify(userListingCache).invalidate();
+    }
+
+    @Test
+    void importUsers_CsvWithoutRequiredColumns_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importUsers(UserImportFormat.CSV, "username,firstName", "ana,Ana"));
+        verifyNoInteractions(userEventService);
+        verifyNoInteractions(userListingCache);
+    }
+
+    private UserImportReport importUsers(UserImportFormat format, String... lines) throws Exception {
+        byte[] content = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return userImportService.importUsers(new ByteArrayInputStream(content), format);
+    }
+
+    private static String json(String username, String email, String mobileNumber, String password) {
+        String name = Character.toUpperCase(username.charAt(0)) + username.substring(1);
+        return "{\"username\":\"" + username + "\",\"email\":\"" + email + "\",\"mobileNumber\":\"" + mobileNumber
+                + "\",\"password\":\"" + password + "\",\"firstName\":\"" + name + "\",\"lastName\":\"Test\"}";
+    }
+}
@@ -3,34 +3,58 @@ package com.proyecto.msvc_auth.services;
 import com.proyecto.msvc_auth.DTO.AuthResponse;
 import com.proyecto.msvc_auth.DTO.LoginRequest;
 import com.proyecto.msvc_auth.DTO.UserRegistrationRequest;
+import com.proyecto.msvc_auth.DTO.UserResponse;
 import com.proyecto.msvc_auth.DTO.UserUpdateRequest;
-import com.proyecto.msvc_auth.Entity.PasswordResetToken;
 import com.proyecto.msvc_auth.Entity.Role;
 import com.proyecto.msvc_auth.Entity.UserEntity;
 import com.proyecto.msvc_auth.exceptions.InvalidCredentialsException;
 import com.proyecto.msvc_auth.exceptions.UserAlreadyExistException;
+import com.proyecto.msvc_auth.exceptions.UserNotFoundException;
+import com.proyecto.msvc_auth.models.CountMode;
+import com.proyecto.msvc_auth.models.CursorPage;
+import com.proyecto.msvc_auth.models.ListingPage;
+import com.proyecto.msvc_auth.models.UserCursor;
 import com.proyecto.msvc_auth.models.UserEvent;
+import com.proyecto.msvc_auth.models.UserRoleRow;
+import com.proyecto.msvc_auth.models.UserSummary;
 import com.proyecto.msvc_auth.repository.PasswordTokenRepository;
 import com.proyecto.msvc_auth.repository.UserRepository;
 import com.proyecto.msvc_auth.security.JwtUtils;
 import com.proyecto.msvc_auth.services.impl.UserServiceImpl;
+import com.proyecto.msvc_auth.util.CacheInvalidationPublisher;
+import com.proyecto.msvc_auth.util.UserCache;
+import com.proyecto.msvc_auth.util.UserListingCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.ott.InvalidOneTimeTokenException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.util.unit.DataSize;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -48,6 +72,9 @@ class UserServiceTest {
     @Mock
     private PasswordTokenRepository passwordTokenRepository;
 
+    @Mock
+    private PasswordResetTokenService passwordResetTokenService;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
@@ -57,24 +84,40 @@ class UserServiceTest {
     @Mock
     private UserEventService userEventService;
 
+    @Mock
+    private UserCountService userCountService;
+
+    @Spy
+    private UserCache userCache = new UserCache(new SimpleMeterRegistry(), mock(CacheInvalidationPublisher.class), 100,
+            Duration.ofMinutes(5));
+
+    @Spy
+    private UserListingCache userListingCache = new UserListingCache(new SimpleMeterRegistry(),
+            mock(CacheInvalidationPublisher.class), DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+
     @Mock
     private AuthenticationManager authenticationManager;
 
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private UserServiceImpl userService;
 
     private UserEntity testUser;
     private UserEntity adminUser;
+    private UserSummary testSummary;
+    private UserSummary adminSummary;
     private UserRegistrationRequest registrationRequest;
     private UserUpdateRequest updateRequest;
     private LoginRequest loginRequest;
 
     @BeforeEach
     void setUp() {
-        reset(userRepository, passwordTokenRepository, passwordEncoder, jwtUtils, userEventService, authenticationManager);
+        reset(userRepository, passwordTokenRepository, passwordResetTokenService, passwordEncoder, jwtUtils, userEventService, authenticationManager);
 
         // Set JWT expiration minutes
         ReflectionTestUtils.setField(userService, "jwtExpirationMinutes", 60);
@@ -105,6 +148,10 @@ class UserServiceTest {
         adminAuthorities.add(Role.ADMIN);
         adminUser.setAuthorities(adminAuthorities);
 
+        // Filas de listado tal como las proyecta el repositorio, sin roles
+        testSummary = new UserSummary(1L, "testuser", "test@example.com", "Test", "User", 0L);
+        adminSummary = new UserSummary(2L, "admin", "admin@example.com", "Admin", "User", 0L);
+
         // Setup registration request
         registrationRequest = new UserRegistrationRequest();
         registrationRequest.setUsername("newuser");
@@ -130,47 +177,75 @@ class UserServiceTest {
     @Test
     void registerUser_ShouldCreateNewUser_WhenValidData() {
         // Given
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("newuser@example.com")).thenReturn(false);
         when(passwordEncoder.encode("newpassword123")).thenReturn("encoded-new-password");
-        when(userRepository.save(any(UserEntity.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(UserEntity.class))).thenReturn(testUser);
 
         // When
         UserEntity result = userService.registerUser(registrationRequest);
 
-        // Then
+        // Then: un único insert, sin consultas previas de existencia
         assertNotNull(result);
-        verify(userRepository).existsByUsername("newuser");
-        verify(userRepository).existsByEmail("newuser@example.com");
         verify(passwordEncoder).encode("newpassword123");
-        verify(userRepository).save(any(UserEntity.class));
+        verify(userRepository).saveAndFlush(any(UserEntity.class));
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, never()).existsByEmail(any());
         verify(userEventService).publishEvent(any(UserEvent.class));
     }
 
     @Test
     void registerUser_ShouldThrowException_WhenUsernameExists() {
         // Given
-        when(userRepository.existsByUsername("newuser")).thenReturn(true);
+        when(userRepository.saveAndFlush(any(UserEntity.class)))
+                .thenThrow(uniqueViolation("uk_users_username", "duplicate key value violates unique constraint"));
 
         // When & Then
-        assertThrows(UserAlreadyExistException.class, () -> userService.registerUser(registrationRequest));
-        verify(userRepository).existsByUsername("newuser");
-        verify(userRepository, never()).save(any());
-        verifyNoInteractions(passwordEncoder, userEventService);
+        UserAlreadyExistException ex = assertThrows(UserAlreadyExistException.class,
+                () -> userService.registerUser(registrationRequest));
+        assertEquals("El nombre de usuario ya está en uso", ex.getMessage());
+        verifyNoInteractions(userEventService);
     }
 
     @Test
     void registerUser_ShouldThrowException_WhenEmailExists() {
+        // Given: restricción con nombre generado por Hibernate, se reconoce por la columna del mensaje
+        when(userRepository.saveAndFlush(any(UserEntity.class)))
+                .thenThrow(uniqueViolation("ukr43af9ap4edm43mmtq01oddj6",
+                        "ERROR: duplicate key value violates unique constraint \"ukr43af9ap4edm43mmtq01oddj6\"\n"
+                                + "  Detail: Key (email)=(newuser@example.com) already exists."));
+
+        // When & Then
+        UserAlreadyExistException ex = assertThrows(UserAlreadyExistException.class,
+                () -> userService.registerUser(registrationRequest));
+        assertEquals("El correo electrónico ya está registrado", ex.getMessage());
+        verifyNoInteractions(userEventService);
+    }
+
+    @Test
+    void registerUser_ShouldThrowException_WhenMobileNumberExists() {
         // Given
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("newuser@example.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(any(UserEntity.class)))
+                .thenThrow(uniqueViolation("uk_users_mobile_number", "duplicate key value violates unique constraint"));
 
         // When & Then
-        assertThrows(UserAlreadyExistException.class, () -> userService.registerUser(registrationRequest));
-        verify(userRepository).existsByUsername("newuser");
-        verify(userRepository).existsByEmail("newuser@example.com");
-        verify(userRepository, never()).save(any());
-        verifyNoInteractions(passwordEncoder, userEventService);
+        UserAlreadyExistException ex = assertThrows(UserAlreadyExistException.class,
+                () -> userService.registerUser(registrationRequest));
+        assertEquals("El número de teléfono ya está registrado", ex.getMessage());
+    }
+
+    @Test
+    void registerUser_ShouldRethrow_WhenViolationIsNotAUniqueUserField() {
+        // Given
+        DataIntegrityViolationException violation = uniqueViolation(null, "NULL not allowed for column \"PASSWORD\"");
+        when(userRepository.saveAndFlush(any(UserEntity.class))).thenThrow(violation);
+
+        // When & Then
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> userService.registerUser(registrationRequest)));
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraintName, String sqlMessage) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(sqlMessage), constraintName));
     }
 
     // Tests de autenticación
@@ -189,7 +264,7 @@ class UserServiceTest {
         assertEquals("mock-jwt-token", result.getToken());
         assertEquals("Bearer", result.getTokenType());
         assertEquals(3600, result.getExpiresIn()); // 60 minutes * 60 seconds
-        assertEquals(testUser, result.getUser());
+        assertEquals(UserResponse.from(testUser), result.getUser());
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository).findByUsername("testuser");
         verify(jwtUtils).generateToken(eq("testuser"), any());
@@ -253,13 +328,27 @@ class UserServiceTest {
         verify(userRepository).findById(999L);
     }
 
+    @Test
+    void getUserById_ShouldServeFromCache_AfterFirstLoad() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When
+        userService.getUserById(1L);
+        Optional<UserEntity> result = userService.getUserById(1L);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("testuser", result.get().getUsername());
+        verify(userRepository, times(1)).findById(1L);
+    }
+
     // Tests de actualización de usuario
     @Test
     void updateUser_ShouldUpdateUser_WhenValidData() {
         // Given
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.existsByEmail("updated@example.com")).thenReturn(false);
-        when(userRepository.save(any(UserEntity.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(UserEntity.class))).thenReturn(testUser);
 
         // When
         UserEntity result = userService.updateUser(1L, updateRequest);
@@ -267,20 +356,36 @@ class UserServiceTest {
         // Then
         assertNotNull(result);
         verify(userRepository).findById(1L);
-        verify(userRepository).existsByEmail("updated@example.com");
-        verify(userRepository).save(any(UserEntity.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository).saveAndFlush(any(UserEntity.class));
         verify(userEventService).publishEvent(any(UserEvent.class));
     }
 
+    @Test
+    void updateUser_ShouldEvictCachedUser() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.saveAndFlush(any(UserEntity.class))).thenReturn(testUser);
+        userService.getUserById(1L);
+
+        // When
+        userService.updateUser(1L, updateRequest);
+        userService.getUserById(1L);
+
+        // Then
+        verify(userCache).evict(1L);
+        verify(userRepository, times(3)).findById(1L);
+    }
+
     @Test
     void updateUser_ShouldThrowException_WhenUserNotFound() {
         // Given
         when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
-        assertThrows(RuntimeException.class, () -> userService.updateUser(999L, updateRequest));
+        assertThrows(UserNotFoundException.class, () -> userService.updateUser(999L, updateRequest));
         verify(userRepository).findById(999L);
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).saveAndFlush(any());
         verifyNoInteractions(userEventService);
     }
 
@@ -288,24 +393,68 @@ class UserServiceTest {
     void updateUser_ShouldThrowException_WhenEmailAlreadyExists() {
         // Given
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.existsByEmail("updated@example.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(any(UserEntity.class)))
+                .thenThrow(uniqueViolation("uk_users_email", "duplicate key"));
 
         // When & Then
         assertThrows(UserAlreadyExistException.class, () -> userService.updateUser(1L, updateRequest));
-        verify(userRepository).findById(1L);
-        verify(userRepository).existsByEmail("updated@example.com");
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verifyNoInteractions(userEventService);
+    }
+
+    @Test
+    void updateUser_ShouldThrowException_WhenExpectedVersionIsStale() {
+        // Given
+        testUser.setVersion(4L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When & Then
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> userService.updateUser(1L, updateRequest, 3L));
+        assertEquals("Test", testUser.getFirstName());
+        verify(userRepository, never()).saveAndFlush(any());
         verifyNoInteractions(userEventService);
     }
 
+    @Test
+    void updateUser_ShouldUpdate_WhenExpectedVersionMatches() {
+        // Given
+        testUser.setVersion(4L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.saveAndFlush(testUser)).thenReturn(testUser);
+
+        // When
+        UserEntity result = userService.updateUser(1L, updateRequest, 4L);
+
+        // Then
+        assertEquals("Updated", result.getFirstName());
+        verify(userEventService).publishEvent(any(UserEvent.class));
+    }
+
     // Tests de eliminación de usuario
     @Test
     void deleteUser_ShouldDeleteUser() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
         // When
         userService.deleteUser(1L);
 
         // Then
-        verify(userRepository).deleteById(1L);
+        verify(userRepository).findById(1L);
+        verify(userRepository).delete(testUser);
+        verify(userEventService).publishEvent(any(UserEvent.class));
+    }
+
+    @Test
+    void deleteUser_ShouldThrowException_WhenUserNotFound() {
+        // Given
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUser(999L));
+        verify(userRepository, never()).delete(any(UserEntity.class));
+        verifyNoInteractions(userEventService);
     }
 
     // Tests de búsqueda
@@ -367,20 +516,30 @@ class UserServiceTest {
     @Test
     void searchUsers_ShouldReturnFilteredUsers() {
         // Given
-        List<UserEntity> users = Arrays.asList(testUser);
-        Page<UserEntity> userPage = new PageImpl<>(users);
+        Page<UserSummary> userPage = new PageImpl<>(List.of(testSummary));
         Pageable pageable = PageRequest.of(0, 10);
-        when(userRepository.findByUsernameContainingOrEmailContainingOrFirstNameContainingOrLastNameContaining(
-                anyString(), anyString(), anyString(), anyString(), eq(pageable))).thenReturn(userPage);
+        when(userRepository.searchByAnyField(anyString(), eq(pageable))).thenReturn(userPage);
 
         // When
-        Page<UserEntity> result = userService.searchUsers("test", pageable);
+        Page<UserSummary> result = userService.searchUsers("test", pageable);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(userRepository).findByUsernameContainingOrEmailContainingOrFirstNameContainingOrLastNameContaining(
-                eq("test"), eq("test"), eq("test"), eq("test"), eq(pageable));
+        verify(userRepository).searchByAnyField(eq("%test%"), eq(pageable));
+    }
+
+    @Test
+    void searchUsers_ShouldEscapeLikeWildcards() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(userRepository.searchByAnyField(anyString(), eq(pageable))).thenReturn(Page.empty());
+
+        // When
+        userService.searchUsers(" 50%_off ", pageable);
+
+        // Then
+        verify(userRepository).searchByAnyField(eq("%50\\%\\_off%"), eq(pageable));
     }
 
     // Tests de actualización de roles
@@ -400,21 +559,32 @@ class UserServiceTest {
         verify(userRepository).save(any(UserEntity.class));
     }
 
+    @Test
+    void updateUserRoles_ShouldThrowException_WhenUserNotFound() {
+        // Given
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(UserNotFoundException.class, () -> userService.updateUserRoles(999L, Set.of(Role.ADMIN)));
+        verify(userRepository, never()).save(any(UserEntity.class));
+    }
+
     // Tests de recuperación de contraseña
     @Test
     void requestPasswordRecovery_ShouldCreateToken_WhenUserExists() {
         // Given
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(passwordTokenRepository.existsByUserIdAndExpiryDateAfter(eq(1L), any(LocalDateTime.class))).thenReturn(false);
-        when(passwordTokenRepository.save(any(PasswordResetToken.class))).thenReturn(new PasswordResetToken());
+        when(passwordResetTokenService.issue(eq(testUser), any(LocalDateTime.class))).thenReturn("reset-token");
 
         // When
         userService.requestPasswordRecovery("test@example.com");
 
         // Then
         verify(userRepository).findByEmail("test@example.com");
-        verify(passwordTokenRepository).save(any(PasswordResetToken.class));
-        verify(userEventService).publishEvent(any(UserEvent.class));
+        ArgumentCaptor<UserEvent> event = ArgumentCaptor.forClass(UserEvent.class);
+        verify(userEventService).publishEvent(event.capture());
+        assertEquals("password-recovery", event.getValue().getEventType());
+        assertEquals("reset-token", event.getValue().getAdditionalData().get("token"));
     }
 
     @Test
@@ -425,68 +595,209 @@ class UserServiceTest {
         // When & Then
         assertThrows(RuntimeException.class, () -> userService.requestPasswordRecovery("nonexistent@example.com"));
         verify(userRepository).findByEmail("nonexistent@example.com");
-        verifyNoInteractions(passwordTokenRepository, userEventService);
+        verifyNoInteractions(passwordResetTokenService, userEventService);
     }
 
     @Test
     void resetPasswordForUser_ShouldResetPassword_WhenValidToken() {
         // Given
-        PasswordResetToken token = new PasswordResetToken();
-        token.setToken("valid-token");
-        token.setUserId(1L);
-        token.setExpiryDate(LocalDateTime.now().plusHours(1));
-
-        when(passwordTokenRepository.findByToken("valid-token")).thenReturn(Optional.of(token));
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.encode("newpassword")).thenReturn("encoded-new-password");
-        when(userRepository.save(any(UserEntity.class))).thenReturn(testUser);
 
         // When
         userService.resetPasswordForUser(1L, "valid-token", "newpassword");
 
         // Then
-        verify(passwordTokenRepository).findByToken("valid-token");
-        verify(userRepository).findById(1L);
-        verify(passwordEncoder).encode("newpassword");
-        verify(userRepository).save(any(UserEntity.class));
-        verify(passwordTokenRepository).delete(token);
+        verify(passwordResetTokenService).redeem(1L, "valid-token", "newpassword");
+        verify(userRepository, never()).save(any(UserEntity.class));
+        verify(userCache).evict(1L);
         verify(userEventService).publishEvent(any(UserEvent.class));
     }
 
+    @Test
+    void resetPasswordForUser_ShouldNotPublishEvent_WhenTokenIsRejected() {
+        // Given
+        doThrow(new InvalidOneTimeTokenException("El token ha expirado"))
+                .when(passwordResetTokenService).redeem(1L, "expired-token", "newpassword");
+
+        // When & Then
+        assertThrows(InvalidOneTimeTokenException.class,
+                () -> userService.resetPasswordForUser(1L, "expired-token", "newpassword"));
+        verifyNoInteractions(userEventService);
+        verify(userCache, never()).evict(anyLong());
+    }
+
+    @Test
+    void resetPasswordForUser_ShouldRejectShortPasswordWithoutTouchingTheToken() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.resetPasswordForUser(1L, "valid-token", "corta"));
+        verifyNoInteractions(passwordResetTokenService, passwordEncoder);
+    }
+
     // Tests de filtrado avanzado
     @Test
     void getAllUsersFiltered_ShouldReturnFilteredUsers_WhenFiltersProvided() {
         // Given
-        List<UserEntity> users = Arrays.asList(testUser);
-        Page<UserEntity> userPage = new PageImpl<>(users);
+        Page<UserSummary> userPage = new PageImpl<>(List.of(testSummary));
         Pageable pageable = PageRequest.of(0, 10);
-        when(userRepository.findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(
-                eq("Test"), eq("User"), eq(pageable))).thenReturn(userPage);
+        when(userRepository.searchByFirstNameAndLastName(
+                eq("%Test%"), eq("%User%"), eq(pageable))).thenReturn(userPage);
 
         // When
-        Page<UserEntity> result = userService.getAllUsersFiltered(pageable, "Test", "User");
+        Page<UserSummary> result = userService.getAllUsersFiltered(pageable, "Test", "User");
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(userRepository).findByFirstNameContainingIgnoreCaseAndLastNameContainingIgnoreCase(
-                eq("Test"), eq("User"), eq(pageable));
+        verify(userRepository).searchByFirstNameAndLastName(
+                eq("%Test%"), eq("%User%"), eq(pageable));
     }
 
     @Test
     void getAllUsersFiltered_ShouldReturnAllUsers_WhenNoFilters() {
         // Given
-        List<UserEntity> users = Arrays.asList(testUser, adminUser);
-        Page<UserEntity> userPage = new PageImpl<>(users);
+        Page<UserSummary> userPage = new PageImpl<>(List.of(testSummary, adminSummary));
         Pageable pageable = PageRequest.of(0, 10);
-        when(userRepository.findAll(pageable)).thenReturn(userPage);
+        when(userRepository.findSummaries(pageable)).thenReturn(userPage);
+        when(userRepository.findRolesByUserIds(List.of(1L, 2L))).thenReturn(List.of(
+                new UserRoleRow(1L, Role.USER), new UserRoleRow(2L, Role.ADMIN), new UserRoleRow(2L, Role.USER)));
 
         // When
-        Page<UserEntity> result = userService.getAllUsersFiltered(pageable, null, null);
+        Page<UserSummary> result = userService.getAllUsersFiltered(pageable, null, null);
 
-        // Then
+        // Then: los roles de toda la página llegan en una sola consulta
         assertNotNull(result);
         assertEquals(2, result.getContent().size());
-        verify(userRepository).findAll(pageable);
+        assertEquals(Set.of(Role.USER), result.getContent().get(0).authorities());
+        assertEquals(Set.of(Role.ADMIN, Role.USER), result.getContent().get(1).authorities());
+        verify(userRepository).findSummaries(pageable);
+        verify(userRepository).findRolesByUserIds(anyCollection());
+    }
+
+    @Test
+    void getAllUsersFiltered_ShouldReadPageCountAndRolesInOneReadOnlyTransaction() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(userRepository.findSummaries(pageable)).thenReturn(new PageImpl<>(List.of(testSummary), pageable, 1));
+
+        // When
+        userService.getAllUsersFiltered(pageable, null, null);
+
+        // Then
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        verify(transactionManager).commit(any());
+        verify(userRepository).findRolesByUserIds(List.of(1L));
+    }
+
+    @Test
+    void getAllUsersFiltered_ShouldServeRepeatedPageFromCache_UntilAUserChanges() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(userRepository.searchByFirstName("%Test%", pageable)).thenReturn(new PageImpl<>(List.of(testSummary), pageable, 1));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(UserEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        userService.getAllUsersFiltered(pageable, "Test", null);
+        Page<UserSummary> cached = userService.getAllUsersFiltered(pageable, "test", "  ");
+        userService.updateUserRoles(1L, Set.of(Role.ADMIN));
+        userService.getAllUsersFiltered(pageable, "Test", null);
+
+        // Then
+        assertEquals(1, cached.getTotalElements());
+        assertEquals("testuser", cached.getContent().get(0).username());
+        verify(userRepository, times(2)).searchByFirstName("%Test%", pageable);
+    }
+
+    // Tests de paginación por cursor
+    @Test
+    void getUsersByCursor_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        // Given
+        when(userRepository.findFirstPageOrderByUsername(Limit.of(2))).thenReturn(Arrays.asList(adminSummary, testSummary));
+
+        // When
+        CursorPage<UserSummary> result = userService.getUsersByCursor(UserCursor.SORT_USERNAME, null, 1);
+
+        // Then
+        assertEquals(1, result.content().size());
+        assertEquals("admin", result.content().get(0).username());
+        assertTrue(result.hasNext());
+        assertEquals(new UserCursor(UserCursor.SORT_USERNAME, "admin", 2L), UserCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void getUsersByCursor_ShouldSeekAfterCursor_AndEndWhenNoMoreRows() {
+        // Given
+        when(userRepository.findPageAfterId(1L, Limit.of(11))).thenReturn(Collections.singletonList(adminSummary));
+
+        // When
+        CursorPage<UserSummary> result = userService.getUsersByCursor(UserCursor.SORT_ID, new UserCursor(UserCursor.SORT_ID, null, 1L), 10);
+
+        // Then
+        assertEquals(1, result.content().size());
+        assertFalse(result.hasNext());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void getUsersByCursor_ShouldThrowException_WhenCursorSortDiffers() {
+        // Given
+        UserCursor cursor = new UserCursor(UserCursor.SORT_USERNAME, "admin", 2L);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersByCursor(UserCursor.SORT_ID, cursor, 10));
+        verifyNoInteractions(userRepository);
+    }
+
+    // Tests de modos de conteo del listado
+    @Test
+    void getUsersListing_ShouldNotCount_WhenCountModeIsNone() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 1);
+        when(userRepository.sliceAll(pageable)).thenReturn(new SliceImpl<>(List.of(testSummary), pageable, true));
+
+        // When
+        ListingPage<UserSummary> result = userService.getUsersListing(pageable, null, null, CountMode.NONE);
+
+        // Then
+        assertTrue(result.hasNext());
+        assertNull(result.totalElements());
+        assertFalse(result.totalExact());
+        verify(userRepository, never()).count();
+        verifyNoInteractions(userCountService);
+    }
+
+    @Test
+    void getUsersListing_ShouldDeriveExactTotal_WhenLastPage() {
+        // Given
+        Pageable pageable = PageRequest.of(2, 10);
+        when(userRepository.sliceByFirstName("%Test%", pageable)).thenReturn(new SliceImpl<>(List.of(testSummary), pageable, false));
+
+        // When
+        ListingPage<UserSummary> result = userService.getUsersListing(pageable, "Test", null, CountMode.CACHED);
+
+        // Then
+        assertEquals(21L, result.totalElements());
+        assertTrue(result.totalExact());
+        verifyNoInteractions(userCountService);
+    }
+
+    @Test
+    void getUsersListing_ShouldFallBackToCachedCount_WhenNoEstimateAvailable() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 1);
+        when(userRepository.sliceByLastName("%User%", pageable)).thenReturn(new SliceImpl<>(List.of(testSummary), pageable, true));
+        when(userCountService.estimatedCount(null, "User")).thenReturn(OptionalLong.empty());
+        when(userCountService.cachedCount(null, "User")).thenReturn(2L);
+
+        // When
+        ListingPage<UserSummary> result = userService.getUsersListing(pageable, null, "User", CountMode.ESTIMATED);
+
+        // Then
+        assertEquals(2L, result.totalElements());
+        assertEquals(2, result.totalPages());
+        assertFalse(result.totalExact());
     }
 }
@@ -0,0 +1,111 @@
+package com.proyecto.msvc_auth.util;
+
+import com.proyecto.msvc_auth.util.ReadinessChecker.Readiness;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.net.ConnectException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Comprobaciones de dependencias contra una base H2 en memoria y un ConnectionFactory simulado;
+ * se llama a check() directamente, sin arrancar el hilo periódico.
+ */
+class ReadinessCheckerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FailingDataSource dataSource;
+    private ConnectionFactory connectionFactory;
+    private Connection brokerConnection;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:readiness-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource = new FailingDataSource(h2);
+        connectionFactory = mock(ConnectionFactory.class);
+        brokerConnection = mock(Connection.class);
+        when(connectionFactory.createConnection()).thenReturn(brokerConnection);
+        when(brokerConnection.isOpen()).thenReturn(true);
+    }
+
+    @Test
+    void readiness_ShouldBeDown_UntilFirstCheck() {
+        ReadinessChecker checker = checker(Duration.ofMinutes(1), true);
+
+        assertEquals(Readiness.DOWN, checker.readiness());
+
+        checker.check();
+        assertEquals(Readiness.READY, checker.readiness());
+        assertEquals(1.0, meterRegistry.get("health.dependency.up").tag("dependency", "database").gauge().value());
+    }
+
+    @Test
+    void readiness_ShouldReportWhichDependencyIsDown() {
+        ReadinessChecker checker = checker(Duration.ofMinutes(1), true);
+
+        dataSource.down = true;
+        checker.check();
+        assertEquals(Readiness.DATABASE_DOWN, checker.readiness());
+
+        dataSource.down = false;
+        when(connectionFactory.createConnection()).thenThrow(new AmqpConnectException(new ConnectException()));
+        checker.check();
+        assertEquals(Readiness.BROKER_DOWN, checker.readiness());
+        assertEquals(0.0, meterRegistry.get("health.dependency.up").tag("dependency", "broker").gauge().value());
+    }
+
+    @Test
+    void readiness_ShouldIgnoreBroker_WhenBrokerCheckDisabled() {
+        ReadinessChecker checker = checker(Duration.ofMinutes(1), false);
+        when(brokerConnection.isOpen()).thenReturn(false);
+
+        checker.check();
+
+        assertEquals(Readiness.READY, checker.readiness());
+        verifyNoInteractions(connectionFactory);
+    }
+
+    @Test
+    void readiness_ShouldBeDown_WhenLastCheckIsStale() throws InterruptedException {
+        ReadinessChecker checker = checker(Duration.ofMillis(1), true);
+
+        checker.check();
+        Thread.sleep(5);
+
+        assertEquals(Readiness.DOWN, checker.readiness());
+    }
+
+    private ReadinessChecker checker(Duration maxStaleness, boolean checkBroker) {
+        return new ReadinessChecker(dataSource, connectionFactory, meterRegistry, Duration.ofSeconds(5),
+                Duration.ofSeconds(1), maxStaleness, checkBroker);
+    }
+
+    private static class FailingDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        FailingDataSource(JdbcDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public java.sql.Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.proyecto.msvc_auth.util;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Enrutado entre un primario y dos réplicas simuladas con bases H2 en memoria independientes;
+ * cada una guarda su propio nombre en la tabla "node" para saber de dónde se ha leído.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", database("replica-1"));
+        replicas.put("replica-2", database("replica-2"));
+        routingDataSource = new ReplicaRoutingDataSource(database(ReplicaRoutingDataSource.PRIMARY), replicas,
+                Duration.ofHours(1));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.addListener(new TransactionExecutionListener() {
+            @Override
+            public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+                if (commitFailure == null && !transaction.isReadOnly()) {
+                    DataSourceRouting.pinToPrimary(Duration.ofMinutes(1));
+                }
+            }
+        });
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataSourceRouting.clear();
+        routingDataSource.close();
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldBeSpreadAcrossReplicas() {
+        assertEquals(List.of("replica-1", "replica-2", "replica-1"),
+                List.of(readOnlyNode(), readOnlyNode(), readOnlyNode()));
+    }
+
+    @Test
+    void writesAndNonTransactionalReads_ShouldUsePrimary() {
+        assertEquals("primary", readWrite.execute(status -> node()));
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void onPrimary_ShouldForcePrimaryForReadOnlyTransactions() {
+        assertEquals("primary", DataSourceRouting.onPrimary(this::readOnlyNode));
+        assertEquals("replica-1", readOnlyNode());
+    }
+
+    @Test
+    void readsAfterAWrite_ShouldStayOnPrimaryUntilCleared() {
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("update node set name = name"));
+
+        assertEquals("primary", readOnlyNode());
+        DataSourceRouting.clear();
+        assertEquals("replica-1", readOnlyNode());
+    }
+
+    @Test
+    void unavailableReplica_ShouldBeSkippedUntilItRecovers() {
+        FailingDataSource failing = new FailingDataSource(database("replica-1"));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", failing);
+        routingDataSource.close();
+        routingDataSource = new ReplicaRoutingDataSource(database(ReplicaRoutingDataSource.PRIMARY), replicas,
+                Duration.ofHours(1));
+        rebuildTemplates();
+
+        failing.down = true;
+        assertEquals("primary", readOnlyNode());
+        assertTrue(routingDataSource.healthyReplicas().isEmpty());
+
+        failing.down = false;
+        routingDataSource.checkHealth();
+        assertEquals(List.of("replica-1"), routingDataSource.healthyReplicas());
+        assertEquals("replica-1", readOnlyNode());
+    }
+
+    private void rebuildTemplates() {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(50))");
+        jdbc.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+
+    private static class FailingDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        FailingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
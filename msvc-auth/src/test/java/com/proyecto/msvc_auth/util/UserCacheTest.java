@@ -0,0 +1,202 @@
+package com.proyecto.msvc_auth.util;
+
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.Entity.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheInvalidationPublisher invalidationPublisher;
+    private UserCache userCache;
+    private UserEntity user;
+    private AtomicInteger loads;
+    private Function<Long, Optional<UserEntity>> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        invalidationPublisher = mock(CacheInvalidationPublisher.class);
+        userCache = new UserCache(meterRegistry, invalidationPublisher, 100, Duration.ofMinutes(5));
+        user = new UserEntity(1L, "testuser", "test@example.com", "+1234567890", "encoded-password",
+                "Test", "User", new HashSet<>(Set.of(Role.USER)), 0L);
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return Optional.of(user);
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getById_ShouldReturnIsolatedCopies() {
+        // Given
+        userCache.getById(1L, loader);
+
+        // When
+        UserEntity first = userCache.getById(1L, loader).orElseThrow();
+        first.setFirstName("Cambiado");
+        first.getAuthorities().add(Role.ADMIN);
+        UserEntity second = userCache.getById(1L, loader).orElseThrow();
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals("Test", second.getFirstName());
+        assertEquals(Set.of(Role.USER), second.getAuthorities());
+    }
+
+    @Test
+    void getByUsername_ShouldReuseEntryLoadedById() {
+        // Given
+        userCache.getById(1L, loader);
+
+        // When
+        Optional<UserEntity> result = userCache.getByUsername("testuser", username -> {
+            throw new AssertionError("No debería consultar la base de datos");
+        });
+
+        // Then
+        assertEquals(1L, result.orElseThrow().getId());
+        assertTrue(userCache.existsByEmail("test@example.com", email -> false));
+    }
+
+    @Test
+    void getVersion_ShouldAnswerFromCache_WhenUserIsCached() {
+        // Given
+        user.setVersion(3L);
+        AtomicInteger versionLoads = new AtomicInteger();
+
+        // When
+        Optional<Long> beforeCaching = userCache.getVersion(1L, id -> {
+            versionLoads.incrementAndGet();
+            return Optional.of(3L);
+        });
+        userCache.getById(1L, loader);
+        Optional<Long> cached = userCache.getVersion(1L, id -> {
+            throw new AssertionError("No debería consultar la base de datos");
+        });
+
+        // Then
+        assertEquals(Optional.of(3L), beforeCaching);
+        assertEquals(Optional.of(3L), cached);
+        assertEquals(1, versionLoads.get());
+    }
+
+    @Test
+    void existsByUsername_ShouldAlwaysCheckDatabase_WhenNotCached() {
+        // Given
+        AtomicInteger checks = new AtomicInteger();
+
+        // When
+        userCache.existsByUsername("nuevo", username -> checks.incrementAndGet() > 1);
+        boolean exists = userCache.existsByUsername("nuevo", username -> checks.incrementAndGet() > 1);
+
+        // Then
+        assertTrue(exists);
+        assertEquals(2, checks.get());
+    }
+
+    @Test
+    void evict_ShouldDropIndexesOfOldValues() {
+        // Given
+        userCache.getById(1L, loader);
+
+        // When
+        userCache.evict(1L);
+        user.setEmail("nuevo@example.com");
+        userCache.getById(1L, loader);
+
+        // Then
+        assertFalse(userCache.existsByEmail("test@example.com", email -> false));
+        assertTrue(userCache.existsByEmail("nuevo@example.com", email -> false));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_ShouldEvictAgainAfterCommit_WhenInsideTransaction() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        userCache.getById(1L, loader);
+
+        // When: otra petición recarga el valor antiguo antes del commit
+        userCache.evict(1L);
+        userCache.getById(1L, loader);
+        verifyNoInteractions(invalidationPublisher);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        userCache.getById(1L, loader);
+
+        // Then: el resto de réplicas se entera solo cuando el cambio ya es visible
+        assertEquals(3, loads.get());
+        verify(invalidationPublisher).publish("user", "1");
+    }
+
+    @Test
+    void getByUsername_ShouldNotCacheUser_WhenEvictedWhileLoading() {
+        // Given: una escritura termina mientras la lectura aún tiene el usuario antiguo
+        Function<String, Optional<UserEntity>> racingLoader = username -> {
+            loads.incrementAndGet();
+            UserEntity stale = new UserEntity(1L, "testuser", "test@example.com", "+1234567890",
+                    "encoded-password", "Test", "User", new HashSet<>(Set.of(Role.USER)), 0L);
+            user.setFirstName("Nuevo");
+            user.setVersion(1L);
+            userCache.evictLocal(1L);
+            return Optional.of(stale);
+        };
+
+        // When
+        userCache.getByUsername("testuser", racingLoader);
+        UserEntity result = userCache.getById(1L, loader).orElseThrow();
+
+        // Then: la versión antigua no quedó en caché
+        assertEquals(2, loads.get());
+        assertEquals("Nuevo", result.getFirstName());
+        assertEquals(1L, result.getVersion());
+    }
+
+    @Test
+    void evictLocal_ShouldNotBroadcast() {
+        // Given
+        userCache.getById(1L, loader);
+
+        // When
+        userCache.evictLocal(1L);
+        userCache.getById(1L, loader);
+
+        // Then
+        assertEquals(2, loads.get());
+        verifyNoInteractions(invalidationPublisher);
+    }
+
+    @Test
+    void metrics_ShouldExportHitRatio() {
+        // When
+        userCache.getById(1L, loader);
+        userCache.getById(1L, loader);
+
+        // Then
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").tag("cache", "users.by-id").gauge().value());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users.by-id").tag("result", "hit")
+                .functionCounter().count());
+    }
+}
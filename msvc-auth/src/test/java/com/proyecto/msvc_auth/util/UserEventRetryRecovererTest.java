@@ -0,0 +1,86 @@
+package com.proyecto.msvc_auth.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+class UserEventRetryRecovererTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @InjectMocks
+    private UserEventRetryRecoverer recoverer;
+
+    private Message message;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(recoverer, "maxAttempts", 3);
+
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue("notifications.queue");
+        message = new Message("{\"eventType\":\"register\"}".getBytes(), properties);
+    }
+
+    @Test
+    void recover_ShouldScheduleFirstRetry_WhenMessageFailsForFirstTime() {
+        // When
+        recoverer.recover(message, new RuntimeException("boom"));
+
+        // Then
+        verify(rabbitTemplate).send("microservices.events.retry", "r1.notifications.queue", message);
+        assertEquals(1, (Integer) message.getMessageProperties().getHeader(UserEventRetryRecoverer.RETRY_ATTEMPT_HEADER));
+        assertEquals("notifications.queue", message.getMessageProperties().getHeader(UserEventRetryRecoverer.ORIGINAL_QUEUE_HEADER));
+    }
+
+    @Test
+    void recover_ShouldUseNextRetryTier_WhenMessageAlreadyRetried() {
+        // Given
+        message.getMessageProperties().setHeader(UserEventRetryRecoverer.RETRY_ATTEMPT_HEADER, 2);
+
+        // When
+        recoverer.recover(message, new RuntimeException("boom"));
+
+        // Then
+        verify(rabbitTemplate).send("microservices.events.retry", "r3.notifications.queue", message);
+    }
+
+    @Test
+    void recover_ShouldSendToDeadLetterQueue_WhenAttemptsExhausted() {
+        // Given
+        message.getMessageProperties().setHeader(UserEventRetryRecoverer.RETRY_ATTEMPT_HEADER, 3);
+
+        // When
+        recoverer.recover(message, new RuntimeException("boom"));
+
+        // Then
+        verify(rabbitTemplate).send("microservices.events.dlx", "user.events.dlq", message);
+        verify(rabbitTemplate, never()).send(eq("microservices.events.retry"), anyString(), any(Message.class));
+        assertEquals("RuntimeException: boom", message.getMessageProperties().getHeader(UserEventRetryRecoverer.LAST_ERROR_HEADER));
+    }
+
+    @Test
+    void recover_ShouldSendToDeadLetterQueue_WhenMessageCannotBeConverted() {
+        // When
+        recoverer.recover(message, new RuntimeException(new MessageConversionException("bad json")));
+
+        // Then
+        verify(rabbitTemplate).send("microservices.events.dlx", "user.events.dlq", message);
+    }
+}
@@ -0,0 +1,154 @@
+package com.proyecto.msvc_auth.util;
+
+import com.proyecto.msvc_auth.Entity.Role;
+import com.proyecto.msvc_auth.models.CountMode;
+import com.proyecto.msvc_auth.models.ListingPage;
+import com.proyecto.msvc_auth.models.UserSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserListingCacheTest {
+
+    private CacheInvalidationPublisher invalidationPublisher;
+    private UserListingCache listingCache;
+    private UserSummary user;
+    private Pageable pageable;
+    private AtomicInteger loads;
+    private Supplier<Page<UserSummary>> loader;
+
+    @BeforeEach
+    void setUp() {
+        invalidationPublisher = mock(CacheInvalidationPublisher.class);
+        listingCache = new UserListingCache(new SimpleMeterRegistry(), invalidationPublisher,
+                DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+        user = new UserSummary(1L, "testuser", "test@example.com", "Test", "User", 0L, Set.of(Role.USER));
+        pageable = PageRequest.of(0, 10);
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(user), pageable, 25);
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void getPage_ShouldReuseEntry_ForEquivalentFilters() {
+        // When
+        listingCache.getPage(pageable, "Ana", null, loader);
+        Page<UserSummary> cached = listingCache.getPage(pageable, "ana", " ", loader);
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals(25, cached.getTotalElements());
+        assertEquals(3, cached.getTotalPages());
+        assertEquals("testuser", cached.getContent().get(0).username());
+    }
+
+    @Test
+    void getListing_ShouldServeRowsThatCallersCannotModify() {
+        // Given
+        List<UserSummary> loaded = new ArrayList<>(List.of(user));
+        listingCache.getListing(pageable, null, null, CountMode.NONE,
+                () -> new ListingPage<>(loaded, 0, 10, false, 1L, true));
+        loaded.clear();
+
+        // When
+        ListingPage<UserSummary> cached = listingCache.getListing(pageable, null, null, CountMode.NONE,
+                () -> fail("Debía servirse desde la caché"));
+
+        // Then
+        assertEquals(1, cached.content().size());
+        assertThrows(UnsupportedOperationException.class, () -> cached.content().clear());
+        assertThrows(UnsupportedOperationException.class, () -> cached.content().get(0).authorities().add(Role.ADMIN));
+    }
+
+    @Test
+    void getListing_ShouldKeepSeparateEntriesPerPageAndCountMode() {
+        // Given
+        Supplier<ListingPage<UserSummary>> listingLoader = () -> {
+            loads.incrementAndGet();
+            return new ListingPage<>(List.of(user), 0, 10, true, null, false);
+        };
+
+        // When
+        listingCache.getListing(pageable, null, null, CountMode.NONE, listingLoader);
+        listingCache.getListing(pageable, null, null, CountMode.NONE, listingLoader);
+        listingCache.getListing(pageable, null, null, CountMode.CACHED, listingLoader);
+        listingCache.getListing(PageRequest.of(1, 10), null, null, CountMode.NONE, listingLoader);
+
+        // Then
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldDropEveryListingAndBroadcast() {
+        // Given
+        listingCache.getPage(pageable, null, null, loader);
+        listingCache.getPage(pageable, "Test", null, loader);
+
+        // When
+        listingCache.invalidate();
+        listingCache.getPage(pageable, null, null, loader);
+        listingCache.getPage(pageable, "Test", null, loader);
+
+        // Then
+        assertEquals(4, loads.get());
+        verify(invalidationPublisher).publish("user-listings", "");
+    }
+
+    @Test
+    void invalidate_ShouldInvalidateAgainAfterCommit_WhenInsideTransaction() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When: otra petición cachea la página antigua antes del commit
+        listingCache.invalidate();
+        listingCache.getPage(pageable, null, null, loader);
+        verifyNoInteractions(invalidationPublisher);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        listingCache.getPage(pageable, null, null, loader);
+
+        // Then
+        assertEquals(2, loads.get());
+        verify(invalidationPublisher).publish("user-listings", "");
+    }
+
+    @Test
+    void invalidateLocal_ShouldNotBroadcast() {
+        // Given
+        listingCache.getPage(pageable, null, null, loader);
+
+        // When
+        listingCache.invalidateLocal();
+        listingCache.getPage(pageable, null, null, loader);
+
+        // Then
+        assertEquals(2, loads.get());
+        verifyNoInteractions(invalidationPublisher);
+    }
+}
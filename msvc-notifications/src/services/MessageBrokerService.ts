@@ -1,6 +1,7 @@
 import RabbitMQConnection from '../config/rabbitmq';
 import NotificationService from './NotificationService';
 import { NotificationEvent } from '../interfaces/Notification';
+import { config } from '../config/config';
 
 class MessageBrokerService {
   private channel: any = null;
@@ -13,6 +14,10 @@ class MessageBrokerService {
     'auth.*',
     'system.*',
   ];
+  // Colas particionadas por userId (declaradas por msvc-auth) y DLQ a la que van los eventos que fallan
+  private readonly PARTITION_QUEUE_PREFIX = 'user.events.partition.';
+  private readonly DEAD_LETTER_EXCHANGE = 'microservices.events.dlx';
+  private readonly DEAD_LETTER_ROUTING_KEY = 'user.events.dlq';
 
   constructor() {
     this.notificationService = new NotificationService();
@@ -83,8 +88,9 @@ class MessageBrokerService {
         durable: true,
       });
 
-      // Vincular la cola al exchange con diferentes routing keys
-      for (const routingKey of this.ROUTING_KEYS) {
+      // Vincular la cola al exchange con diferentes routing keys. Con particiones, los eventos de
+      // usuario llegan por sus colas en orden y no se vinculan aquí para no procesarlos dos veces
+      for (const routingKey of this.routingKeys()) {
         await this.channel.bindQueue(
           this.QUEUE_NAME,
           this.EXCHANGE_NAME,
@@ -93,7 +99,18 @@ class MessageBrokerService {
         console.log(`🔗 Queue bound to exchange with routing key: ${routingKey}`);
       }
 
-      // Configurar prefetch para procesar un mensaje a la vez
+      if (config.userEventsPartitioning.enabled) {
+        for (const queue of this.partitionQueues()) {
+          // Mismos argumentos que msvc-auth: un solo consumidor activo por partición entre réplicas
+          await this.channel.assertQueue(queue, {
+            durable: true,
+            arguments: { 'x-single-active-consumer': true },
+          });
+        }
+      }
+
+      // Configurar prefetch para procesar un mensaje a la vez (por consumidor: cada partición avanza
+      // en orden y las particiones en paralelo)
       await this.channel.prefetch(1);
 
       console.log('✅ Message Broker Service Initialized');
@@ -118,21 +135,9 @@ class MessageBrokerService {
       async (msg: any) => {
         if (msg) {
           try {
-            const content = msg.content.toString();
-            let event: any = JSON.parse(content);
-            // Log para depuración: imprime el evento completo recibido
-            console.log('🔍 Evento recibido (raw):', content);
-            console.log('🔍 Evento recibido (objeto):', event);
-
-            // Mapear el evento de msvc-auth al formato esperado
-            const mappedEvent = this.mapEventToNotificationEvent(event);
-
-            console.log(`📨 Received event: ${mappedEvent.type} for user: ${mappedEvent.userId}`);
-            // Procesar el evento
-            await this.notificationService.processEvent(mappedEvent);
+            await this.handleMessage(msg);
             // Confirmar el mensaje
             this.channel!.ack(msg);
-            console.log(`✅ Event processed successfully: ${mappedEvent.type}`);
           } catch (error) {
             console.error('❌ Error processing message:', error);
             // Rechazar el mensaje y no re-encolar
@@ -144,6 +149,73 @@ class MessageBrokerService {
         noAck: false, // Confirmación manual de mensajes
       }
     );
+
+    if (config.userEventsPartitioning.enabled) {
+      for (const queue of this.partitionQueues()) {
+        console.log(`🎧 Listening for ordered user events on queue: ${queue}`);
+        await this.channel.consume(queue, (msg: any) => msg && this.consumePartitionMessage(queue, msg), {
+          noAck: false,
+        });
+      }
+    }
+  }
+
+  /**
+   * Evento de una partición: se reintenta de inmediato, sin esperas que frenen la partición, y si
+   * sigue fallando se manda a la DLQ de msvc-auth con su cola de origen (el replay lo devuelve aquí).
+   * Mientras está en la DLQ, los eventos siguientes del mismo usuario se procesan antes que él.
+   */
+  private async consumePartitionMessage(queue: string, msg: any): Promise<void> {
+    const maxAttempts = Math.max(1, config.userEventsPartitioning.maxAttempts);
+    for (let attempt = 1; attempt <= maxAttempts; attempt++) {
+      try {
+        await this.handleMessage(msg);
+        this.channel!.ack(msg);
+        return;
+      } catch (error) {
+        console.error(`❌ Error processing message from ${queue} (attempt ${attempt}/${maxAttempts}):`, error);
+        if (attempt === maxAttempts) {
+          this.channel!.publish(this.DEAD_LETTER_EXCHANGE, this.DEAD_LETTER_ROUTING_KEY, msg.content, {
+            ...msg.properties,
+            headers: {
+              ...msg.properties.headers,
+              'x-original-queue': queue,
+              'x-last-error': String(error instanceof Error ? error.message : error).slice(0, 500),
+            },
+          });
+          this.channel!.ack(msg);
+        }
+      }
+    }
+  }
+
+  private async handleMessage(msg: any): Promise<void> {
+    const content = msg.content.toString();
+    let event: any = JSON.parse(content);
+    // Log para depuración: imprime el evento completo recibido
+    console.log('🔍 Evento recibido (raw):', content);
+    console.log('🔍 Evento recibido (objeto):', event);
+
+    // Mapear el evento de msvc-auth al formato esperado
+    const mappedEvent = this.mapEventToNotificationEvent(event);
+
+    console.log(`📨 Received event: ${mappedEvent.type} for user: ${mappedEvent.userId}`);
+    // Procesar el evento
+    await this.notificationService.processEvent(mappedEvent);
+    console.log(`✅ Event processed successfully: ${mappedEvent.type}`);
+  }
+
+  private routingKeys(): string[] {
+    return config.userEventsPartitioning.enabled
+      ? this.ROUTING_KEYS.filter((routingKey) => routingKey !== 'user.*')
+      : this.ROUTING_KEYS;
+  }
+
+  private partitionQueues(): string[] {
+    return Array.from(
+      { length: config.userEventsPartitioning.partitions },
+      (_, partition) => `${this.PARTITION_QUEUE_PREFIX}${partition}`
+    );
   }
 
   /**
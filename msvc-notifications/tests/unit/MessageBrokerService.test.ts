@@ -1,6 +1,7 @@
 import { describe, test, expect, beforeEach, afterEach, jest } from '@jest/globals';
 import MessageBrokerService from '../../src/services/MessageBrokerService';
 import { NotificationType } from '../../src/interfaces/Notification';
+import { config } from '../../src/config/config';
 
 // Mock de las dependencias
 jest.mock('../../src/config/rabbitmq');
@@ -36,6 +37,7 @@ describe('MessageBrokerService', () => {
   });
 
   afterEach(() => {
+    config.userEventsPartitioning.enabled = false;
     jest.clearAllMocks();
   });
 
@@ -97,4 +99,42 @@ describe('MessageBrokerService', () => {
       expect(result).toBeUndefined(); // publishEvent no retorna valor según la implementación real
     });
   });
+
+  describe('colas particionadas de eventos de usuario', () => {
+    beforeEach(async () => {
+      config.userEventsPartitioning.enabled = true;
+      await messageBrokerService.initialize();
+      await messageBrokerService.startConsuming();
+    });
+
+    const partitionHandler = (queue: string): any =>
+      mockChannel.consume.mock.calls.find((call: any[]) => call[0] === queue)[1];
+
+    test('debería consumir cada partición y dejar de leer user.* del topic', () => {
+      expect(mockChannel.bindQueue).not.toHaveBeenCalledWith('notifications.queue', 'microservices.events', 'user.*');
+      expect(mockChannel.assertQueue).toHaveBeenCalledWith('user.events.partition.0', {
+        durable: true,
+        arguments: { 'x-single-active-consumer': true },
+      });
+      expect(mockChannel.consume).toHaveBeenCalledTimes(1 + config.userEventsPartitioning.partitions);
+    });
+
+    test('debería mandar a la DLQ con su cola de origen un evento que sigue fallando', async () => {
+      const processEvent = jest.fn().mockImplementation(() => Promise.reject(new Error('boom')));
+      (messageBrokerService as any).notificationService.processEvent = processEvent;
+      const msg = {
+        content: Buffer.from(JSON.stringify({ eventType: 'user-update', userId: 7 })),
+        properties: { contentType: 'application/json', headers: {} },
+      };
+
+      await partitionHandler('user.events.partition.3')(msg);
+
+      expect(processEvent).toHaveBeenCalledTimes(config.userEventsPartitioning.maxAttempts);
+      expect(mockChannel.publish).toHaveBeenCalledWith('microservices.events.dlx', 'user.events.dlq', msg.content, {
+        contentType: 'application/json',
+        headers: { 'x-original-queue': 'user.events.partition.3', 'x-last-error': 'boom' },
+      });
+      expect(mockChannel.ack).toHaveBeenCalledWith(msg);
+    });
+  });
 });